@@ -0,0 +1,26 @@
+package com.smarthealthcare.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Sets the {@code @Value} fields Spring would normally inject, so components
+ * can be benchmarked without starting an application context.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    static void setField(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    static void invoke(Object target, String name) throws ReflectiveOperationException {
+        Method method = target.getClass().getDeclaredMethod(name);
+        method.setAccessible(true);
+        method.invoke(target);
+    }
+}
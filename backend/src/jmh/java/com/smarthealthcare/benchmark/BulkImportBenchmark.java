@@ -0,0 +1,187 @@
+package com.smarthealthcare.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthealthcare.dto.ImportResultDto;
+import com.smarthealthcare.repository.HospitalRepository;
+import com.smarthealthcare.service.impl.BulkImportServiceImpl;
+import com.smarthealthcare.service.impl.DoctorCalendarIndex;
+import com.smarthealthcare.service.impl.DoctorSearchIndex;
+import com.smarthealthcare.service.impl.HospitalGeoIndex;
+import com.smarthealthcare.service.impl.ReferenceDataCache;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Bulk imports of a 100k-row file into H2 in MySQL mode, schema built by the
+ * Flyway migrations, reported as rows per second. Each operation is one full
+ * import through the same parse, validate and chunked JDBC batch path the
+ * import endpoints use. User rows carry an already hashed password, so the
+ * users case measures the insert path rather than BCrypt, which costs about
+ * as much per row as a login.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BulkImportBenchmark.ROWS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BulkImportBenchmark {
+
+    static final int ROWS = 100_000;
+    private static final int HOSPITALS = 50;
+    private static final String[] SPECIALIZATIONS = { "Cardiology", "Dermatology", "Neurology", "Orthopedics",
+            "Pediatrics", "Radiology" };
+
+    @Param({ "csv", "ndjson" })
+    private String format;
+
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private BulkImportServiceImpl service;
+    private byte[] hospitalFile;
+    private byte[] doctorFile;
+    private byte[] userFile;
+
+    @Setup
+    public void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:bulk-import-" + format + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        for (int i = 1; i <= HOSPITALS; i++) {
+            jdbcTemplate.update("insert into hospitals (id, name, location, latitude, longitude, total_beds, "
+                    + "available_beds) values (?, ?, 'Pune', 18.5, 73.8, 200, 100)", i, "Hospital " + i);
+        }
+
+        SplittableRandom random = new SplittableRandom(5);
+        hospitalFile = file(new String[] { "name", "location", "latitude", "longitude", "totalBeds",
+                "availableBeds" }, i -> {
+                    int beds = random.nextInt(20, 500);
+                    return new Object[] { "Imported Hospital " + i, "City " + i % 100,
+                            18.4 + random.nextDouble(0.3), 73.7 + random.nextDouble(0.3), beds,
+                            random.nextInt(beds + 1) };
+                });
+        doctorFile = file(new String[] { "name", "specialization", "hospitalId" },
+                i -> new Object[] { "Doctor " + i, SPECIALIZATIONS[i % SPECIALIZATIONS.length],
+                        i % HOSPITALS + 1 });
+        // one real hash for every row; the service only hashes values that are not hashes already
+        String hash = new BCryptPasswordEncoder().encode("password");
+        userFile = file(new String[] { "name", "email", "password", "role" },
+                i -> new Object[] { "Patient " + i, "patient" + i + "@import.test", hash, "PATIENT" });
+    }
+
+    // every import starts from the seeded hospitals and empty indexes
+    @Setup(Level.Invocation)
+    public void newService() throws ReflectiveOperationException {
+        jdbcTemplate.update("delete from doctors");
+        jdbcTemplate.update("delete from users");
+        jdbcTemplate.update("delete from hospitals where id > ?", HOSPITALS);
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        service = new BulkImportServiceImpl(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), hospitalRepository(),
+                new HospitalGeoIndex(null, 0.25),
+                new DoctorCalendarIndex(null, null, 30, "09:00", "17:00"), new DoctorSearchIndex(null),
+                new ReferenceDataCache(10_000, 300), new BCryptPasswordEncoder(), objectMapper);
+        BenchmarkSupport.setField(service, "chunkSize", 1000);
+        BenchmarkSupport.setField(service, "maxReportedErrors", 1000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.execute("shutdown");
+    }
+
+    @Benchmark
+    public ImportResultDto hospitals() throws IOException {
+        return checked(service.importHospitals(new ByteArrayInputStream(hospitalFile), contentType()));
+    }
+
+    @Benchmark
+    public ImportResultDto doctors() throws IOException {
+        return checked(service.importDoctors(new ByteArrayInputStream(doctorFile), contentType()));
+    }
+
+    @Benchmark
+    public ImportResultDto users() throws IOException {
+        return checked(service.importUsers(new ByteArrayInputStream(userFile), contentType()));
+    }
+
+    // a run that quietly rejected rows would report a meaningless rate
+    private static ImportResultDto checked(ImportResultDto result) {
+        if (result.getImported() != ROWS) {
+            throw new IllegalStateException("Imported " + result.getImported() + " of " + ROWS + " rows, first "
+                    + "errors: " + result.getErrors().stream().limit(3).toList());
+        }
+        return result;
+    }
+
+    private String contentType() {
+        return format.equals("csv") ? "text/csv" : "application/x-ndjson";
+    }
+
+    private byte[] file(String[] columns, IntFunction<Object[]> row) {
+        StringBuilder content = new StringBuilder();
+        if (format.equals("csv")) {
+            content.append(String.join(",", columns)).append('\n');
+        }
+        for (int i = 1; i <= ROWS; i++) {
+            Object[] values = row.apply(i);
+            if (format.equals("csv")) {
+                for (int c = 0; c < values.length; c++) {
+                    content.append(c == 0 ? "" : ",").append(values[c]);
+                }
+            } else {
+                content.append('{');
+                for (int c = 0; c < values.length; c++) {
+                    content.append(c == 0 ? "" : ",").append('"').append(columns[c]).append("\":");
+                    content.append(values[c] instanceof String ? "\"" + values[c] + "\"" : values[c]);
+                }
+                content.append('}');
+            }
+            content.append('\n');
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // hospital ids are validated once per import through the repository; only existsById is used
+    private HospitalRepository hospitalRepository() {
+        return (HospitalRepository) Proxy.newProxyInstance(HospitalRepository.class.getClassLoader(),
+                new Class<?>[] { HospitalRepository.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("existsById")) {
+                        return jdbcTemplate.queryForObject("select count(*) from hospitals where id = ?",
+                                Integer.class, args[0]) > 0;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
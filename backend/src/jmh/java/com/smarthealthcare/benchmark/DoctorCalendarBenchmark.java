@@ -0,0 +1,207 @@
+package com.smarthealthcare.benchmark;
+
+import com.smarthealthcare.dto.DoctorAvailabilityDto;
+import com.smarthealthcare.dto.DoctorSlotDto;
+import com.smarthealthcare.service.impl.DoctorCalendarIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Doctor availability over synthetic calendars with about half of every
+ * working day booked for the next two weeks. {@code indexed*} answer from the
+ * in-memory bitmaps; {@code scan*} are the baseline, working the same answer
+ * out of an in-memory H2 appointments table the way a client of the old
+ * appointment listing had to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoctorCalendarBenchmark {
+
+    private static final String[] SPECIALIZATIONS = { "Cardiology", "Dermatology", "General Medicine",
+            "Neurology", "Orthopaedics", "Paediatrics", "Psychiatry", "Radiology" };
+    private static final int HOSPITALS = 100;
+    private static final int DAYS = 14;
+    private static final int SLOT_MINUTES = 30;
+    private static final LocalTime DAY_START = LocalTime.of(9, 0);
+    private static final LocalTime DAY_END = LocalTime.of(17, 0);
+
+    @Param({ "1000", "5000" })
+    private int doctors;
+
+    private DoctorCalendarIndex index;
+    private Connection connection;
+    private PreparedStatement doctorHistory;
+    private PreparedStatement bookedForSpecialization;
+    private LocalDate from;
+    private long doctorId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        SplittableRandom random = new SplittableRandom(7);
+        index = new DoctorCalendarIndex(null, null, SLOT_MINUTES, DAY_START.toString(), DAY_END.toString());
+        from = LocalDate.now().plusDays(1);
+        connection = DriverManager.getConnection("jdbc:h2:mem:doctor-calendar-" + doctors);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table doctors (id bigint primary key, specialization varchar(255), "
+                    + "hospital_id bigint)");
+            statement.execute("create table appointments (id bigint auto_increment primary key, "
+                    + "doctor_id bigint, date date, time time, status varchar(16))");
+            statement.execute("create index idx_appointments_doctor_id on appointments (doctor_id, id)");
+        }
+        try (PreparedStatement doctor = connection.prepareStatement("insert into doctors values (?, ?, ?)");
+                PreparedStatement appointment = connection.prepareStatement(
+                        "insert into appointments (doctor_id, date, time, status) values (?, ?, ?, 'BOOKED')")) {
+            for (long id = 1; id <= doctors; id++) {
+                String specialization = SPECIALIZATIONS[random.nextInt(SPECIALIZATIONS.length)];
+                long hospitalId = random.nextInt(HOSPITALS) + 1;
+                index.putDoctor(id, "Dr. " + id, specialization, hospitalId);
+                doctor.setLong(1, id);
+                doctor.setString(2, specialization);
+                doctor.setLong(3, hospitalId);
+                doctor.addBatch();
+
+                for (int day = 0; day < DAYS; day++) {
+                    LocalDate date = from.plusDays(day);
+                    for (LocalTime time = DAY_START; time.isBefore(DAY_END); time = time.plusMinutes(SLOT_MINUTES)) {
+                        if (random.nextBoolean()) {
+                            index.book(id, date, time);
+                            appointment.setLong(1, id);
+                            appointment.setDate(2, Date.valueOf(date));
+                            appointment.setTime(3, Time.valueOf(time));
+                            appointment.addBatch();
+                        }
+                    }
+                }
+                appointment.executeBatch();
+            }
+            doctor.executeBatch();
+        }
+        doctorHistory = connection.prepareStatement("select date, time, status from appointments "
+                + "where doctor_id = ? order by id");
+        bookedForSpecialization = connection.prepareStatement("select d.id, a.time from doctors d "
+                + "left join appointments a on a.doctor_id = d.id and a.date = ? and a.status = 'BOOKED' "
+                + "where d.specialization = ? order by d.id");
+        doctorId = doctors / 2;
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<DoctorAvailabilityDto> indexedAvailabilityForAWeek() {
+        return index.availability(doctorId, from, from.plusDays(6));
+    }
+
+    @Benchmark
+    public DoctorSlotDto indexedFirstAvailable() {
+        return index.firstAvailable("Cardiology", null, from, DAYS);
+    }
+
+    @Benchmark
+    public DoctorSlotDto indexedFirstAvailableInHospital() {
+        return index.firstAvailable("Neurology", (long) HOSPITALS / 2, from, DAYS);
+    }
+
+    @Benchmark
+    public List<DoctorAvailabilityDto> scanAvailabilityForAWeek() throws SQLException {
+        LocalDate to = from.plusDays(6);
+        Set<String> booked = new HashSet<>();
+        doctorHistory.setLong(1, doctorId);
+        try (ResultSet rows = doctorHistory.executeQuery()) {
+            while (rows.next()) {
+                LocalDate date = rows.getDate(1).toLocalDate();
+                if ("BOOKED".equals(rows.getString(3)) && !date.isBefore(from) && !date.isAfter(to)) {
+                    booked.add(date + " " + rows.getTime(2).toLocalTime());
+                }
+            }
+        }
+        List<DoctorAvailabilityDto> days = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            List<LocalTime> free = new ArrayList<>();
+            for (LocalTime time = DAY_START; time.isBefore(DAY_END); time = time.plusMinutes(SLOT_MINUTES)) {
+                if (!booked.contains(date + " " + time)) {
+                    free.add(time);
+                }
+            }
+            days.add(new DoctorAvailabilityDto(date, free));
+        }
+        return days;
+    }
+
+    @Benchmark
+    public DoctorSlotDto scanFirstAvailable() throws SQLException {
+        for (int day = 0; day < DAYS; day++) {
+            LocalDate date = from.plusDays(day);
+            bookedForSpecialization.setDate(1, Date.valueOf(date));
+            bookedForSpecialization.setString(2, "Cardiology");
+
+            long bestDoctor = 0;
+            LocalTime bestTime = DAY_END;
+            try (ResultSet rows = bookedForSpecialization.executeQuery()) {
+                long current = 0;
+                Set<LocalTime> booked = new HashSet<>();
+                while (true) {
+                    boolean more = rows.next();
+                    if (!more || rows.getLong(1) != current) {
+                        if (current != 0) {
+                            for (LocalTime time = DAY_START; time.isBefore(bestTime);
+                                    time = time.plusMinutes(SLOT_MINUTES)) {
+                                if (!booked.contains(time)) {
+                                    bestDoctor = current;
+                                    bestTime = time;
+                                    break;
+                                }
+                            }
+                        }
+                        if (!more) {
+                            break;
+                        }
+                        current = rows.getLong(1);
+                        booked.clear();
+                    }
+                    Time time = rows.getTime(2);
+                    if (time != null) {
+                        booked.add(time.toLocalTime());
+                    }
+                }
+            }
+            if (bestDoctor != 0) {
+                return new DoctorSlotDto(bestDoctor, "Dr. " + bestDoctor, "Cardiology", null, date, bestTime);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,138 @@
+package com.smarthealthcare.benchmark;
+
+import com.smarthealthcare.dto.DoctorDto;
+import com.smarthealthcare.service.impl.DoctorSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Doctor typeahead over synthetic doctors. {@code like*} runs the query the
+ * old specialization finder sent, {@code LIKE '%term%'} against an in-memory
+ * H2 table with the same hospital index as production, and is the baseline
+ * for the trigram index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoctorSearchBenchmark {
+
+    private static final String[] SPECIALIZATIONS = { "Cardiology", "Dermatology", "General Medicine",
+            "Neurology", "Orthopaedics", "Paediatrics", "Psychiatry", "Radiology" };
+    private static final String[] FIRST_NAMES = { "Asha", "Rahul", "Priya", "Vikram", "Neha", "Arjun", "Kavya",
+            "Rohan", "Meera", "Sanjay" };
+    private static final String[] LAST_NAMES = { "Rao", "Sharma", "Patil", "Iyer", "Kulkarni", "Deshmukh",
+            "Menon", "Joshi", "Naidu", "Kapoor" };
+    private static final int HOSPITALS = 500;
+    private static final int LIMIT = 10;
+
+    @Param({ "1000", "100000" })
+    private int doctors;
+
+    private DoctorSearchIndex index;
+    private Connection connection;
+    private PreparedStatement like;
+    private PreparedStatement likeInHospital;
+    private long hospitalId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        SplittableRandom random = new SplittableRandom(7);
+        index = new DoctorSearchIndex(null);
+        connection = DriverManager.getConnection("jdbc:h2:mem:doctor-search-" + doctors);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table doctors (id bigint primary key, name varchar(255), "
+                    + "specialization varchar(255), hospital_id bigint)");
+            statement.execute("create index idx_doctors_hospital_id on doctors (hospital_id, id)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("insert into doctors values (?, ?, ?, ?)")) {
+            for (int i = 1; i <= doctors; i++) {
+                String name = "Dr. " + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                String specialization = SPECIALIZATIONS[random.nextInt(SPECIALIZATIONS.length)];
+                long hospital = random.nextInt(HOSPITALS) + 1;
+                index.put((long) i, name, specialization, hospital);
+                insert.setLong(1, i);
+                insert.setString(2, name);
+                insert.setString(3, specialization);
+                insert.setLong(4, hospital);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        like = connection.prepareStatement("select id, name, specialization, hospital_id from doctors "
+                + "where lower(name) like ? or lower(specialization) like ? order by id limit " + LIMIT);
+        likeInHospital = connection.prepareStatement("select id, name, specialization, hospital_id from doctors "
+                + "where hospital_id = ? and (lower(name) like ? or lower(specialization) like ?) "
+                + "order by id limit " + LIMIT);
+        hospitalId = HOSPITALS / 2;
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<DoctorDto> indexedSpecialization() {
+        return index.search("cardio", null, LIMIT);
+    }
+
+    @Benchmark
+    public List<DoctorDto> indexedNameAndSpecialization() {
+        return index.search("kulkarni neuro", null, LIMIT);
+    }
+
+    @Benchmark
+    public List<DoctorDto> indexedPrefixInHospital() {
+        return index.search("ps", hospitalId, LIMIT);
+    }
+
+    @Benchmark
+    public List<DoctorDto> likeSpecialization() throws SQLException {
+        like.setString(1, "%cardio%");
+        like.setString(2, "%cardio%");
+        return read(like);
+    }
+
+    @Benchmark
+    public List<DoctorDto> likeInHospital() throws SQLException {
+        likeInHospital.setLong(1, hospitalId);
+        likeInHospital.setString(2, "%ps%");
+        likeInHospital.setString(3, "%ps%");
+        return read(likeInHospital);
+    }
+
+    private static List<DoctorDto> read(PreparedStatement statement) throws SQLException {
+        List<DoctorDto> doctors = new ArrayList<>(LIMIT);
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                doctors.add(new DoctorDto(rows.getLong(1), rows.getString(2), rows.getString(3), rows.getLong(4)));
+            }
+        }
+        return doctors;
+    }
+}
@@ -0,0 +1,89 @@
+package com.smarthealthcare.benchmark;
+
+import com.smarthealthcare.service.impl.HospitalGeoIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest-hospital lookups over synthetic hospitals spread across India's
+ * bounding box. {@code fullScan} is the original approach (haversine for
+ * every hospital, then sort) and is kept as the baseline for the grid index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoSearchBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int hospitals;
+
+    @Param({ "10", "50" })
+    private double radiusKm;
+
+    private HospitalGeoIndex index;
+    private double[] latitudes;
+    private double[] longitudes;
+    private double queryLat;
+    private double queryLon;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(7);
+        index = new HospitalGeoIndex(null, 0.25);
+        latitudes = new double[hospitals];
+        longitudes = new double[hospitals];
+        for (int i = 0; i < hospitals; i++) {
+            latitudes[i] = random.nextDouble(8.0, 35.0);
+            longitudes[i] = random.nextDouble(68.0, 97.0);
+            index.put((long) i + 1, latitudes[i], longitudes[i], random.nextInt(0, 50));
+        }
+        queryLat = 18.52;
+        queryLon = 73.85;
+    }
+
+    @Benchmark
+    public double calculateDistance() {
+        return HospitalGeoIndex.calculateDistance(queryLat, queryLon, latitudes[0], longitudes[0]);
+    }
+
+    @Benchmark
+    public List<HospitalGeoIndex.Match> indexedSearch() {
+        return index.findWithin(queryLat, queryLon, radiusKm, 20);
+    }
+
+    @Benchmark
+    public List<HospitalGeoIndex.Match> indexedSearchWithFreeBeds() {
+        return index.findWithin(queryLat, queryLon, radiusKm, 1, 20);
+    }
+
+    @Benchmark
+    public List<HospitalGeoIndex.Match> fullScan() {
+        List<HospitalGeoIndex.Match> matches = new ArrayList<>();
+        for (int i = 0; i < latitudes.length; i++) {
+            double distance = HospitalGeoIndex.calculateDistance(queryLat, queryLon, latitudes[i], longitudes[i]);
+            if (distance <= radiusKm) {
+                matches.add(new HospitalGeoIndex.Match((long) i + 1, distance));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(HospitalGeoIndex.Match::distance));
+        return matches.size() > 20 ? matches.subList(0, 20) : matches;
+    }
+}
@@ -0,0 +1,77 @@
+package com.smarthealthcare.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.smarthealthcare.dto.AppointmentDto;
+import com.smarthealthcare.entity.AppointmentStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON for a large appointment list, built in memory as one array the way a
+ * page response is, against the row-by-row writes of the NDJSON list
+ * endpoints. Uses the same Jackson setup as the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({ "1000", "10000" })
+    private int appointments;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter rowWriter;
+    private List<AppointmentDto> rows;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        rowWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        rows = new ArrayList<>(appointments);
+        LocalDate firstDay = LocalDate.of(2026, 1, 1);
+        for (int i = 0; i < appointments; i++) {
+            rows.add(new AppointmentDto((long) i + 1, 1000L + i % 500, 10L + i % 40, "Dr. Asha Rao",
+                    "Ravi Kumar", firstDay.plusDays(i % 90), LocalTime.of(9 + i % 8, (i % 2) * 30),
+                    AppointmentStatus.BOOKED));
+        }
+    }
+
+    @Benchmark
+    public byte[] bufferedArray() throws IOException {
+        return objectMapper.writeValueAsBytes(rows);
+    }
+
+    @Benchmark
+    public void streamedRows() throws IOException {
+        // same writer setup and per-row writes as ListResponses.ndjson
+        OutputStream out = OutputStream.nullOutputStream();
+        for (AppointmentDto row : rows) {
+            rowWriter.writeValue(out, row);
+            out.write('\n');
+        }
+        out.flush();
+    }
+}
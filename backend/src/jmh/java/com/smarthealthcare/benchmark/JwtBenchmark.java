@@ -0,0 +1,65 @@
+package com.smarthealthcare.benchmark;
+
+import com.smarthealthcare.security.AuthenticatedUser;
+import com.smarthealthcare.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private AuthenticatedUser user;
+    private String familyId;
+    private String token;
+    private String tamperedToken;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        jwtTokenProvider = new JwtTokenProvider(new SimpleMeterRegistry());
+        BenchmarkSupport.setField(jwtTokenProvider, "jwtSecret",
+                "SecretKeyToGenJWTsShouldBeLongAndComplexStringForSecurityPurpose");
+        BenchmarkSupport.setField(jwtTokenProvider, "jwtExpirationDate", 900_000L);
+        BenchmarkSupport.setField(jwtTokenProvider, "refreshExpirationDate", 604_800_000L);
+        BenchmarkSupport.invoke(jwtTokenProvider, "init");
+
+        user = new AuthenticatedUser(42L, "Benchmark Patient", "patient@example.com", "ROLE_PATIENT", null);
+        familyId = UUID.randomUUID().toString();
+        token = jwtTokenProvider.generateToken(user, familyId);
+        // same header and claims, broken signature: the cost of rejecting a forged token
+        tamperedToken = token.substring(0, token.length() - 4) + "AAAA";
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenProvider.generateToken(user, familyId);
+    }
+
+    @Benchmark
+    public Claims validateToken() {
+        return jwtTokenProvider.parseClaims(token);
+    }
+
+    @Benchmark
+    public Claims rejectTamperedToken() {
+        return jwtTokenProvider.parseClaims(tamperedToken);
+    }
+}
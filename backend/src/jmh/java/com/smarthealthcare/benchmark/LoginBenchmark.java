@@ -0,0 +1,156 @@
+package com.smarthealthcare.benchmark;
+
+import com.smarthealthcare.controller.AuthController;
+import com.smarthealthcare.dto.JwtAuthResponse;
+import com.smarthealthcare.dto.LoginDto;
+import com.smarthealthcare.security.AuthenticatedUser;
+import com.smarthealthcare.security.JwtTokenProvider;
+import com.smarthealthcare.security.PasswordHashingExecutor;
+import com.smarthealthcare.service.impl.AuthServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logins per second through {@code AuthController.login} and the
+ * {@link PasswordHashingExecutor}, against the blocking path it replaced,
+ * where the request thread authenticated and issued the tokens itself. A
+ * small fixed pool stands in for the servlet container's request threads;
+ * more clients log in than it has threads, while a couple of clients send
+ * light authenticated requests (one token check each, after a few
+ * milliseconds of think time) through the same pool. Each group reports both
+ * rates: the login rate is bounded by BCrypt on the available cores either
+ * way, the difference is whether the other requests still get a request
+ * thread while the logins hash.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final int REQUEST_THREADS = 8;
+    private static final String EMAIL = "patient@example.com";
+    private static final String PASSWORD = "password";
+    // paces the other clients, so they stand for steady traffic rather than a CPU-bound loop
+    private static final long THINK_MILLIS = 5;
+
+    private ExecutorService requestThreads;
+    private PasswordHashingExecutor passwordHashingExecutor;
+    private AuthenticationManager authenticationManager;
+    private JwtTokenProvider jwtTokenProvider;
+    private AuthController authController;
+    private LoginDto loginDto;
+    private String token;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        String hash = passwordEncoder.encode(PASSWORD);
+        // the real provider and encoder; only the user lookup is in memory
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsService(email -> new AuthenticatedUser(42L, "Benchmark Patient", email,
+                "ROLE_PATIENT", hash));
+        authenticationManager = new ProviderManager(provider);
+
+        jwtTokenProvider = new JwtTokenProvider(new SimpleMeterRegistry());
+        BenchmarkSupport.setField(jwtTokenProvider, "jwtSecret",
+                "SecretKeyToGenJWTsShouldBeLongAndComplexStringForSecurityPurpose");
+        BenchmarkSupport.setField(jwtTokenProvider, "jwtExpirationDate", 900_000L);
+        BenchmarkSupport.setField(jwtTokenProvider, "refreshExpirationDate", 604_800_000L);
+        BenchmarkSupport.invoke(jwtTokenProvider, "init");
+
+        // login touches none of the revocation, cache or repository collaborators
+        passwordHashingExecutor = new PasswordHashingExecutor(0, 256);
+        authController = new AuthController(new AuthServiceImpl(authenticationManager, null, passwordEncoder,
+                jwtTokenProvider, passwordHashingExecutor, null, null, null, null, null));
+
+        requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        loginDto = new LoginDto(EMAIL, PASSWORD);
+        token = jwtTokenProvider.generateToken(new AuthenticatedUser(42L, "Benchmark Patient", EMAIL,
+                "ROLE_PATIENT", null), UUID.randomUUID().toString());
+    }
+
+    @TearDown
+    public void tearDown() {
+        requestThreads.shutdownNow();
+        passwordHashingExecutor.shutdown();
+    }
+
+    // the request thread only hands the check to the hashing pool; the client waits for the response
+    @Benchmark
+    @Group("async")
+    @GroupThreads(16)
+    public ResponseEntity<JwtAuthResponse> asyncLogin() throws ExecutionException, InterruptedException {
+        return requestThreads.submit(() -> authController.login(loginDto)).get().get();
+    }
+
+    @Benchmark
+    @Group("async")
+    @GroupThreads(2)
+    public Claims asyncOtherRequest() throws ExecutionException, InterruptedException {
+        return otherRequest();
+    }
+
+    // the request thread holds on through BCrypt, as the controller did before the hashing pool
+    @Benchmark
+    @Group("blocking")
+    @GroupThreads(16)
+    public JwtAuthResponse blockingLogin() throws ExecutionException, InterruptedException {
+        return requestThreads.submit(this::authenticateInline).get();
+    }
+
+    @Benchmark
+    @Group("blocking")
+    @GroupThreads(2)
+    public Claims blockingOtherRequest() throws ExecutionException, InterruptedException {
+        return otherRequest();
+    }
+
+    private Claims otherRequest() throws ExecutionException, InterruptedException {
+        Thread.sleep(THINK_MILLIS);
+        return requestThreads.submit(() -> jwtTokenProvider.parseClaims(token)).get();
+    }
+
+    private JwtAuthResponse authenticateInline() {
+        Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(loginDto.getEmail(), loginDto.getPassword()));
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        String familyId = UUID.randomUUID().toString();
+        JwtAuthResponse response = new JwtAuthResponse();
+        response.setAccessToken(jwtTokenProvider.generateToken(user, familyId));
+        response.setRefreshToken(jwtTokenProvider.generateRefreshToken(user, familyId));
+        response.setRole(user.getRole());
+        response.setId(user.getId());
+        response.setName(user.getName());
+        return response;
+    }
+}
@@ -0,0 +1,151 @@
+package com.smarthealthcare.benchmark;
+
+import com.smarthealthcare.dto.AppointmentDto;
+import com.smarthealthcare.dto.DoctorDto;
+import com.smarthealthcare.dto.HospitalDto;
+import com.smarthealthcare.dto.MedicalRecordDto;
+import com.smarthealthcare.entity.Appointment;
+import com.smarthealthcare.entity.AppointmentStatus;
+import com.smarthealthcare.entity.Doctor;
+import com.smarthealthcare.entity.Hospital;
+import com.smarthealthcare.entity.MedicalRecord;
+import com.smarthealthcare.entity.MedicalRecordStatus;
+import com.smarthealthcare.entity.Role;
+import com.smarthealthcare.entity.User;
+import com.smarthealthcare.mapper.AppointmentMapper;
+import com.smarthealthcare.mapper.DoctorMapper;
+import com.smarthealthcare.mapper.HospitalMapper;
+import com.smarthealthcare.mapper.MedicalRecordMapper;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping for each DTO, with the hand-written mappers against
+ * the ModelMapper configuration they replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final HospitalMapper hospitalMapper = new HospitalMapper();
+    private final DoctorMapper doctorMapper = new DoctorMapper();
+    private final AppointmentMapper appointmentMapper = new AppointmentMapper();
+    private final MedicalRecordMapper medicalRecordMapper = new MedicalRecordMapper();
+
+    private Hospital hospital;
+    private Doctor doctor;
+    private Appointment appointment;
+    private MedicalRecord medicalRecord;
+
+    @Setup
+    public void setUp() {
+        hospital = new Hospital();
+        hospital.setId(1L);
+        hospital.setName("City General Hospital");
+        hospital.setLocation("Pune");
+        hospital.setLatitude(18.52);
+        hospital.setLongitude(73.85);
+        hospital.setTotalBeds(250);
+        hospital.setAvailableBeds(37);
+
+        User doctorUser = new User();
+        doctorUser.setId(2L);
+        doctorUser.setName("Dr. Asha Rao");
+        doctorUser.setEmail("asha@example.com");
+        doctorUser.setRole(Role.DOCTOR);
+
+        doctor = new Doctor();
+        doctor.setId(3L);
+        doctor.setName("Dr. Asha Rao");
+        doctor.setSpecialization("Cardiology");
+        doctor.setHospital(hospital);
+        doctor.setUser(doctorUser);
+
+        User patient = new User();
+        patient.setId(4L);
+        patient.setName("Ravi Kumar");
+        patient.setEmail("ravi@example.com");
+        patient.setRole(Role.PATIENT);
+
+        appointment = new Appointment();
+        appointment.setId(5L);
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setDate(LocalDate.of(2026, 1, 15));
+        appointment.setTime(LocalTime.of(10, 30));
+        appointment.setStatus(AppointmentStatus.BOOKED);
+
+        medicalRecord = new MedicalRecord();
+        medicalRecord.setId(6L);
+        medicalRecord.setPatient(patient);
+        medicalRecord.setFileUrl("https://example.com/records/6.png");
+        medicalRecord.setExtractedText("Blood pressure 120/80, pulse 72, no abnormalities found.");
+        medicalRecord.setUploadDate(LocalDate.of(2026, 1, 10));
+        medicalRecord.setNotes("Routine check-up");
+        medicalRecord.setStatus(MedicalRecordStatus.READY);
+
+        // let ModelMapper build its type maps outside the measurement
+        modelMapper.map(hospital, HospitalDto.class);
+        modelMapper.map(doctor, DoctorDto.class);
+        modelMapper.map(appointment, AppointmentDto.class);
+        modelMapper.map(medicalRecord, MedicalRecordDto.class);
+    }
+
+    @Benchmark
+    public HospitalDto hospitalMapper() {
+        return hospitalMapper.toDto(hospital);
+    }
+
+    @Benchmark
+    public HospitalDto hospitalModelMapper() {
+        return modelMapper.map(hospital, HospitalDto.class);
+    }
+
+    @Benchmark
+    public DoctorDto doctorMapper() {
+        return doctorMapper.toDto(doctor);
+    }
+
+    @Benchmark
+    public DoctorDto doctorModelMapper() {
+        return modelMapper.map(doctor, DoctorDto.class);
+    }
+
+    @Benchmark
+    public AppointmentDto appointmentMapper() {
+        return appointmentMapper.toDto(appointment);
+    }
+
+    @Benchmark
+    public AppointmentDto appointmentModelMapper() {
+        return modelMapper.map(appointment, AppointmentDto.class);
+    }
+
+    @Benchmark
+    public MedicalRecordDto medicalRecordMapper() {
+        return medicalRecordMapper.toDto(medicalRecord);
+    }
+
+    @Benchmark
+    public MedicalRecordDto medicalRecordModelMapper() {
+        return modelMapper.map(medicalRecord, MedicalRecordDto.class);
+    }
+}
@@ -0,0 +1,186 @@
+package com.smarthealthcare.benchmark;
+
+import com.smarthealthcare.dto.MedicalRecordSearchHitDto;
+import com.smarthealthcare.repository.MedicalRecordRepository;
+import com.smarthealthcare.repository.MedicalRecordText;
+import com.smarthealthcare.service.impl.MedicalRecordSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over synthetic OCR'd lab reports, indexed through the
+ * same rebuild path the application runs at startup. Covers a common term,
+ * a rare term, a phrase, a prefix and a search scoped to one patient, each
+ * returning the top ten hits with highlighted snippets. Building the 1M
+ * record index takes a few minutes and about a gigabyte of disk in the
+ * temporary directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MedicalRecordSearchBenchmark {
+
+    private static final String[][] FINDINGS = {
+            { "Haemoglobin", "g/dL" }, { "WBC count", "/uL" }, { "Platelet count", "/uL" },
+            { "Fasting glucose", "mg/dL" }, { "HbA1c", "%" }, { "Total cholesterol", "mg/dL" },
+            { "LDL cholesterol", "mg/dL" }, { "Triglycerides", "mg/dL" }, { "Serum creatinine", "mg/dL" },
+            { "TSH", "mIU/L" }, { "Vitamin D", "ng/mL" }, { "Blood pressure", "mmHg" } };
+    private static final String[] IMPRESSIONS = { "No abnormalities detected", "Mild anaemia, follow up advised",
+            "Borderline hyperlipidaemia", "Elevated blood sugar, suggest diabetology review",
+            "Thyroid function within normal limits", "Vitamin D deficiency, supplementation advised",
+            "Suspected pneumonia in the right lower lobe", "Fracture of the distal radius" };
+    private static final int LIMIT = 10;
+
+    @Param({ "100000", "1000000" })
+    private int records;
+
+    private Path indexDir;
+    private MedicalRecordSearchIndex index;
+    private long patientId;
+
+    @Setup
+    public void setUp() throws Exception {
+        indexDir = Files.createTempDirectory("record-search-benchmark");
+        int patients = Math.max(1, records / 10);
+        MedicalRecordRepository repository = (MedicalRecordRepository) Proxy.newProxyInstance(
+                MedicalRecordRepository.class.getClassLoader(), new Class<?>[] { MedicalRecordRepository.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("streamSearchable")) {
+                        return reports(patients);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        index = new MedicalRecordSearchIndex(repository, new TransactionTemplate(new NoTransactionManager()),
+                indexDir.toString(), 3600);
+        BenchmarkSupport.setField(index, "snippetPassages", 2);
+        index.rebuild();
+        patientId = patients / 2;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        index.shutdown();
+        try (Stream<Path> files = Files.walk(indexDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<MedicalRecordSearchHitDto> commonTerm() {
+        return index.search("cholesterol", null, LIMIT);
+    }
+
+    @Benchmark
+    public List<MedicalRecordSearchHitDto> rareTerm() {
+        return index.search("pneumonia radius", null, LIMIT);
+    }
+
+    @Benchmark
+    public List<MedicalRecordSearchHitDto> phrase() {
+        return index.search("\"vitamin d deficiency\"", null, LIMIT);
+    }
+
+    @Benchmark
+    public List<MedicalRecordSearchHitDto> prefix() {
+        return index.search("hyperlip*", null, LIMIT);
+    }
+
+    @Benchmark
+    public List<MedicalRecordSearchHitDto> onePatient() {
+        return index.search("glucose", patientId, LIMIT);
+    }
+
+    // one to four findings and an impression per report, values varied so no two reports match exactly
+    private Stream<MedicalRecordText> reports(int patients) {
+        SplittableRandom random = new SplittableRandom(11);
+        LocalDate today = LocalDate.now();
+        return LongStream.rangeClosed(1, records).mapToObj(id -> {
+            StringBuilder text = new StringBuilder("LABORATORY REPORT\n");
+            int findings = random.nextInt(1, 5);
+            for (int i = 0; i < findings; i++) {
+                String[] finding = FINDINGS[random.nextInt(FINDINGS.length)];
+                text.append(finding[0]).append(' ').append(random.nextInt(1, 400)).append(' ')
+                        .append(finding[1]).append('\n');
+            }
+            text.append("Impression: ").append(IMPRESSIONS[random.nextInt(IMPRESSIONS.length)]);
+            return new Report(id, (long) random.nextInt(patients) + 1, today.minusDays(random.nextInt(3650)),
+                    text.toString());
+        });
+    }
+
+    private record Report(Long id, Long patientId, LocalDate uploadDate, String extractedText)
+            implements MedicalRecordText {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getPatientId() {
+            return patientId;
+        }
+
+        @Override
+        public LocalDate getUploadDate() {
+            return uploadDate;
+        }
+
+        @Override
+        public String getExtractedText() {
+            return extractedText;
+        }
+    }
+
+    // the rebuild runs inside a transaction template; there is no database here
+    private static final class NoTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
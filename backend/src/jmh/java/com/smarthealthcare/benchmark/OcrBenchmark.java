@@ -0,0 +1,95 @@
+package com.smarthealthcare.benchmark;
+
+import com.smarthealthcare.service.impl.OcrService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OCR of a rendered one-page lab report through the pooled Tesseract engines,
+ * from more threads than the smallest pool has engines, so the throughput per
+ * pool size shows how far OCR scales with the cores given to it.
+ * Needs the native Tesseract library and trained data; point
+ * {@code -Dbenchmark.tessdata} at the tessdata directory if it is not in the
+ * default location. Without them this benchmark errors and the others still run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class OcrBenchmark {
+
+    private static final String[] REPORT_LINES = {
+            "COMPLETE BLOOD COUNT",
+            "Haemoglobin        13.8 g/dL",
+            "WBC count          7200 /uL",
+            "Platelet count     250000 /uL",
+            "Blood pressure     120/80 mmHg",
+            "Impression: no abnormalities detected",
+    };
+
+    @Param({ "1", "2", "4" })
+    private int poolSize;
+
+    private OcrService ocrService;
+    private BufferedImage report;
+
+    @Setup
+    public void setUp() {
+        String datapath = System.getProperty("benchmark.tessdata", "src/main/resources/tessdata");
+        ocrService = new OcrService(datapath, "eng", poolSize, 30_000, new SimpleMeterRegistry());
+        report = renderReport();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ocrService.shutdown();
+    }
+
+    @Benchmark
+    public String extractText() {
+        return ocrService.extractText(report);
+    }
+
+    private static BufferedImage renderReport() {
+        BufferedImage image = new BufferedImage(1240, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            graphics.setColor(Color.BLACK);
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                    RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            graphics.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 32));
+            int y = 80;
+            for (String line : REPORT_LINES) {
+                graphics.drawString(line, 60, y);
+                y += 80;
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+}
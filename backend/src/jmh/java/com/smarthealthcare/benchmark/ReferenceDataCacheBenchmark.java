@@ -0,0 +1,181 @@
+package com.smarthealthcare.benchmark;
+
+import com.smarthealthcare.dto.CursorPage;
+import com.smarthealthcare.dto.HospitalDto;
+import com.smarthealthcare.service.impl.ReadThroughCache;
+import com.smarthealthcare.service.impl.ReferenceDataCache;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hospital reads with and without the reference data cache, against an
+ * in-memory H2 hospitals table. The {@code queries} counter is reported next
+ * to the throughput, so queries per operation shows the DB volume each read
+ * costs; {@code *UnderWrites} invalidates one hospital every hundred reads.
+ * Cache hit and miss totals are printed after each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReferenceDataCacheBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({ "1000", "100000" })
+    private int hospitals;
+
+    private ReferenceDataCache cache;
+    private Connection connection;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Reads {
+
+        public long queries;
+
+        private final SplittableRandom random = new SplittableRandom();
+        private long count;
+
+        long nextId(int hospitals) {
+            return random.nextInt(hospitals) + 1;
+        }
+
+        boolean everyHundredth() {
+            return ++count % 100 == 0;
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            queries = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws SQLException {
+        cache = new ReferenceDataCache(10_000, 300);
+        connection = DriverManager.getConnection("jdbc:h2:mem:reference-data-" + hospitals);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table hospitals (id bigint primary key, name varchar(255), "
+                    + "location varchar(255), latitude double, longitude double, total_beds int, available_beds int)");
+        }
+        SplittableRandom random = new SplittableRandom(7);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into hospitals values (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= hospitals; i++) {
+                insert.setLong(1, i);
+                insert.setString(2, "Hospital " + i);
+                insert.setString(3, "Pune");
+                insert.setDouble(4, 18.4 + random.nextDouble(0.3));
+                insert.setDouble(5, 73.7 + random.nextDouble(0.3));
+                insert.setInt(6, 200);
+                insert.setInt(7, random.nextInt(200));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void printStats() {
+        for (ReadThroughCache.Stats stats : cache.getStats()) {
+            if (stats.hits() + stats.misses() > 0) {
+                System.out.printf("%n%s: %d hits, %d misses, %d evictions, %d invalidations%n", stats.name(),
+                        stats.hits(), stats.misses(), stats.evictions(), stats.invalidations());
+            }
+        }
+        cache.invalidateAll();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public HospitalDto uncachedHospitalById(Reads reads) {
+        return loadHospital(reads, reads.nextId(hospitals));
+    }
+
+    @Benchmark
+    public HospitalDto cachedHospitalById(Reads reads) {
+        long id = reads.nextId(hospitals);
+        return cache.hospital(id, () -> loadHospital(reads, id));
+    }
+
+    @Benchmark
+    public HospitalDto cachedHospitalByIdUnderWrites(Reads reads) {
+        long id = reads.nextId(hospitals);
+        if (reads.everyHundredth()) {
+            cache.hospitalChanged(id);
+        }
+        return cache.hospital(id, () -> loadHospital(reads, id));
+    }
+
+    @Benchmark
+    public CursorPage<HospitalDto> uncachedFirstPage(Reads reads) {
+        return loadPage(reads);
+    }
+
+    @Benchmark
+    public CursorPage<HospitalDto> cachedFirstPage(Reads reads) {
+        return cache.hospitalPage(null, PAGE_SIZE, () -> loadPage(reads));
+    }
+
+    private HospitalDto loadHospital(Reads reads, long id) {
+        reads.queries++;
+        try (PreparedStatement select = connection.prepareStatement("select * from hospitals where id = ?")) {
+            select.setLong(1, id);
+            List<HospitalDto> rows = read(select);
+            return rows.isEmpty() ? null : rows.get(0);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CursorPage<HospitalDto> loadPage(Reads reads) {
+        reads.queries++;
+        try (PreparedStatement select = connection.prepareStatement(
+                "select * from hospitals where id > 0 order by id limit " + (PAGE_SIZE + 1))) {
+            return CursorPage.of(read(select), PAGE_SIZE, HospitalDto::getId, hospital -> hospital);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<HospitalDto> read(PreparedStatement statement) throws SQLException {
+        List<HospitalDto> hospitals = new ArrayList<>();
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                hospitals.add(new HospitalDto(rows.getLong(1), rows.getString(2), rows.getString(3),
+                        rows.getDouble(4), rows.getDouble(5), rows.getInt(6), rows.getInt(7)));
+            }
+        }
+        return hospitals;
+    }
+}
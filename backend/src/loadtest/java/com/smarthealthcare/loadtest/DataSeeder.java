@@ -0,0 +1,177 @@
+package com.smarthealthcare.loadtest;
+
+import com.smarthealthcare.dto.ImportResultDto;
+import com.smarthealthcare.service.BulkImportService;
+import com.smarthealthcare.service.RecordStorage;
+import com.smarthealthcare.service.impl.DoctorCalendarIndex;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Fills the empty database through the bulk importer, so the geo index, the
+ * doctor calendar and the reference caches are warmed the same way a real
+ * import warms them. Appointments have no importer and go in with plain JDBC,
+ * as do the medical records that let every patient download one stored file.
+ */
+final class DataSeeder {
+
+    // hospitals spread over a metro-sized area so a nearest search finds a realistic handful
+    static final double MIN_LATITUDE = 18.0;
+    static final double MAX_LATITUDE = 19.0;
+    static final double MIN_LONGITUDE = 73.3;
+    static final double MAX_LONGITUDE = 74.3;
+
+    static final LocalTime FIRST_SLOT = LocalTime.of(8, 0);
+    static final int SLOTS_PER_DAY = 20;
+    static final int BOOKING_DAYS = 60;
+
+    private static final String CSV = "text/csv";
+    private static final String RECORD_FILE_KEY = "loadtest-lab-report.png";
+    private static final String[] SPECIALIZATIONS = { "Cardiology", "Dermatology", "General Medicine",
+            "Neurology", "Orthopaedics", "Paediatrics", "Psychiatry", "Radiology" };
+
+    private final BulkImportService bulkImportService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final DoctorCalendarIndex doctorCalendarIndex;
+    private final RecordStorage recordStorage;
+    private final LoadTestSettings settings;
+
+    DataSeeder(ApplicationContext context, LoadTestSettings settings) {
+        this.bulkImportService = context.getBean(BulkImportService.class);
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+        this.passwordEncoder = context.getBean(PasswordEncoder.class);
+        this.doctorCalendarIndex = context.getBean(DoctorCalendarIndex.class);
+        this.recordStorage = context.getBean(RecordStorage.class);
+        this.settings = settings;
+    }
+
+    SeedData seed() throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        // one hash for everybody, the importer keeps values that are already BCrypt hashes
+        String passwordHash = passwordEncoder.encode(settings.password());
+
+        StringBuilder hospitals = new StringBuilder("name,location,latitude,longitude,totalBeds,availableBeds\n");
+        for (int i = 1; i <= settings.hospitals(); i++) {
+            int totalBeds = random.nextInt(20, 500);
+            hospitals.append("Load Test Hospital ").append(i).append(",Pune,")
+                    .append(random.nextDouble(MIN_LATITUDE, MAX_LATITUDE)).append(',')
+                    .append(random.nextDouble(MIN_LONGITUDE, MAX_LONGITUDE)).append(',')
+                    .append(totalBeds).append(',')
+                    .append(random.nextInt(0, totalBeds + 1)).append('\n');
+        }
+        importCsv("hospitals", bulkImportService::importHospitals, hospitals);
+        List<Long> hospitalIds = jdbcTemplate.queryForList("select id from hospitals", Long.class);
+
+        List<String> doctorEmails = new ArrayList<>(settings.doctors());
+        StringBuilder doctors = new StringBuilder("name,email,password,role,hospitalId,specialization\n");
+        for (int i = 1; i <= settings.doctors(); i++) {
+            String email = "doctor" + i + "@loadtest.local";
+            doctorEmails.add(email);
+            doctors.append("Dr. Load Test ").append(i).append(',').append(email).append(',')
+                    .append(passwordHash).append(",DOCTOR,")
+                    .append(hospitalIds.get(random.nextInt(hospitalIds.size()))).append(',')
+                    .append(SPECIALIZATIONS[random.nextInt(SPECIALIZATIONS.length)]).append('\n');
+        }
+        importCsv("doctors", bulkImportService::importUsers, doctors);
+
+        List<String> patientEmails = new ArrayList<>(settings.patients());
+        StringBuilder patients = new StringBuilder("name,email,password,role\n");
+        for (int i = 1; i <= settings.patients(); i++) {
+            String email = "patient" + i + "@loadtest.local";
+            patientEmails.add(email);
+            patients.append("Load Test Patient ").append(i).append(',').append(email).append(',')
+                    .append(passwordHash).append(",PATIENT\n");
+        }
+        importCsv("patients", bulkImportService::importUsers, patients);
+
+        List<Long> doctorIds = jdbcTemplate.queryForList("select id from doctors", Long.class);
+        seedAppointments(random, doctorIds);
+        seedMedicalRecords();
+        return new SeedData(patientEmails, doctorEmails, doctorIds, RECORD_FILE_KEY);
+    }
+
+    private void seedAppointments(SplittableRandom random, List<Long> doctorIds) {
+        List<Long> patientIds = jdbcTemplate.queryForList("select id from users where role = 'PATIENT'", Long.class);
+        if (settings.appointments() == 0 || doctorIds.isEmpty() || patientIds.isEmpty()) {
+            return;
+        }
+        // leave at least half of every calendar free for the booking requests
+        long capacity = (long) doctorIds.size() * BOOKING_DAYS * SLOTS_PER_DAY / 2;
+        int count = (int) Math.min(settings.appointments(), capacity);
+
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        Set<Long> taken = new HashSet<>();
+        List<Object[]> rows = new ArrayList<>(count);
+        while (rows.size() < count) {
+            int doctor = random.nextInt(doctorIds.size());
+            int day = random.nextInt(BOOKING_DAYS);
+            int slot = random.nextInt(SLOTS_PER_DAY);
+            if (taken.add(((long) doctor * BOOKING_DAYS + day) * SLOTS_PER_DAY + slot)) {
+                rows.add(new Object[] { patientIds.get(random.nextInt(patientIds.size())), doctorIds.get(doctor),
+                        Date.valueOf(firstDay.plusDays(day)), Time.valueOf(slotTime(slot, settings.slotMinutes())),
+                        "BOOKED" });
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into appointments (patient_id, doctor_id, date, time, status) values (?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.update("insert into appointment_slots (doctor_id, date, time, appointment_id) "
+                + "select doctor_id, date, time, id from appointments where status = 'BOOKED'");
+        doctorCalendarIndex.rebuild();
+        System.out.println("Seeded " + count + " appointments");
+    }
+
+    // identical uploads share one stored file, so one file with a record per patient is what dedup leaves behind
+    private void seedMedicalRecords() throws IOException {
+        Path file = Files.createTempFile("loadtest-record", ".png");
+        try {
+            Files.write(file, LoadDriver.renderRecordImage());
+            String fileUrl = recordStorage.store(RECORD_FILE_KEY, file);
+            int records = jdbcTemplate.update("insert into medical_records (patient_id, upload_date, file_url, notes, "
+                    + "status) select id, current_date, ?, 'Seeded lab report', 'READY' from users "
+                    + "where role = 'PATIENT'", fileUrl);
+            System.out.println("Seeded " + records + " medical records sharing one stored file");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    static LocalTime slotTime(int slot, int slotMinutes) {
+        return FIRST_SLOT.plusMinutes((long) slot * slotMinutes);
+    }
+
+    private static void importCsv(String what, Importer importer, StringBuilder csv) throws IOException {
+        ImportResultDto result = importer.importRows(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), CSV);
+        if (result.getFailed() > 0) {
+            throw new IllegalStateException("Seeding " + what + " failed on " + result.getFailed() + " rows, first: "
+                    + result.getErrors().get(0).getMessage());
+        }
+        System.out.println("Seeded " + result.getImported() + " " + what + " in " + result.getElapsedMillis() + " ms");
+    }
+
+    private interface Importer {
+        ImportResultDto importRows(InputStream content, String contentType) throws IOException;
+    }
+
+    record SeedData(List<String> patientEmails, List<String> doctorEmails, List<Long> doctorIds,
+            String recordFileKey) {
+    }
+}
@@ -0,0 +1,167 @@
+package com.smarthealthcare.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms and outcome counts. Latencies are recorded
+ * in nanoseconds and reported in milliseconds.
+ */
+final class LatencyReport {
+
+    enum Outcome {
+        OK,
+        // an answer the application is expected to give under load, e.g. 409 for a taken slot
+        REJECTED,
+        ERROR
+    }
+
+    private static final String ROW = "%-36s %9s %9s %9s %9s %9s %9s %9s %9s%n";
+    private static final String NAME = "%-36s";
+    private static final String RUN = " %9s %9s %9s";
+
+    private final Map<Operation, Endpoint> endpoints = new EnumMap<>(Operation.class);
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            endpoints.put(operation, new Endpoint());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, Outcome outcome) {
+        Endpoint endpoint = endpoints.get(operation);
+        endpoint.latency.recordValue(latencyNanos);
+        switch (outcome) {
+            case OK -> endpoint.ok.increment();
+            case REJECTED -> endpoint.rejected.increment();
+            case ERROR -> endpoint.errors.increment();
+        }
+    }
+
+    // drops everything recorded so far, used at the end of the warm-up
+    void reset() {
+        for (Endpoint endpoint : endpoints.values()) {
+            endpoint.latency.reset();
+            endpoint.ok.reset();
+            endpoint.rejected.reset();
+            endpoint.errors.reset();
+            endpoint.measured = null;
+        }
+    }
+
+    double errorPercent() {
+        long requests = 0;
+        long errors = 0;
+        for (Endpoint endpoint : endpoints.values()) {
+            requests += endpoint.ok.sum() + endpoint.rejected.sum() + endpoint.errors.sum();
+            errors += endpoint.errors.sum();
+        }
+        return requests == 0 ? 0 : 100.0 * errors / requests;
+    }
+
+    String format(String title, Duration measured) {
+        double seconds = measured.toNanos() / 1e9;
+        StringBuilder report = new StringBuilder(title).append(System.lineSeparator()).append(System.lineSeparator());
+        report.append(String.format(ROW, "endpoint", "requests", "req/s", "rejected", "errors", "p50 ms", "p99 ms",
+                "p99.9 ms", "max ms"));
+
+        long totalRejected = 0;
+        long totalErrors = 0;
+        for (Map.Entry<Operation, Endpoint> entry : endpoints.entrySet()) {
+            Endpoint endpoint = entry.getValue();
+            Histogram histogram = endpoint.measured();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            totalRejected += endpoint.rejected.sum();
+            totalErrors += endpoint.errors.sum();
+            appendRow(report, entry.getKey().getEndpoint(), histogram, endpoint.rejected.sum(),
+                    endpoint.errors.sum(), seconds);
+        }
+        appendRow(report, "all", total(), totalRejected, totalErrors, seconds);
+        return report.toString();
+    }
+
+    /**
+     * Request rate, p99 and errors per endpoint of runs of the same mix, one
+     * column group per run in the order given.
+     */
+    static String compare(String title, Map<String, LatencyReport> runs, Duration measured) {
+        double seconds = measured.toNanos() / 1e9;
+        StringBuilder table = new StringBuilder(title).append(System.lineSeparator()).append(System.lineSeparator());
+        table.append(String.format(NAME, ""));
+        runs.keySet().forEach(run -> table.append(String.format(" %29s", run)));
+        table.append(System.lineSeparator()).append(String.format(NAME, "endpoint"));
+        runs.keySet().forEach(run -> table.append(String.format(RUN, "req/s", "p99 ms", "errors")));
+        table.append(System.lineSeparator());
+
+        for (Operation operation : Operation.values()) {
+            if (runs.values().stream().allMatch(run -> run.endpoints.get(operation).measured().getTotalCount() == 0)) {
+                continue;
+            }
+            table.append(String.format(NAME, operation.getEndpoint()));
+            for (LatencyReport run : runs.values()) {
+                Endpoint endpoint = run.endpoints.get(operation);
+                appendRun(table, endpoint.measured(), endpoint.errors.sum(), seconds);
+            }
+            table.append(System.lineSeparator());
+        }
+        table.append(String.format(NAME, "all"));
+        for (LatencyReport run : runs.values()) {
+            appendRun(table, run.total(), run.endpoints.values().stream().mapToLong(e -> e.errors.sum()).sum(),
+                    seconds);
+        }
+        return table.append(System.lineSeparator()).toString();
+    }
+
+    private Histogram total() {
+        Histogram total = new Histogram(3);
+        endpoints.values().forEach(endpoint -> total.add(endpoint.measured()));
+        return total;
+    }
+
+    private static void appendRun(StringBuilder table, Histogram histogram, long errors, double seconds) {
+        table.append(String.format(RUN,
+                String.format("%.1f", histogram.getTotalCount() / seconds),
+                millis(histogram.getValueAtPercentile(99)),
+                errors));
+    }
+
+    private static void appendRow(StringBuilder report, String name, Histogram histogram, long rejected,
+            long errors, double seconds) {
+        report.append(String.format(ROW, name,
+                histogram.getTotalCount(),
+                String.format("%.1f", histogram.getTotalCount() / seconds),
+                rejected,
+                errors,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue())));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
+    }
+
+    private static final class Endpoint {
+        private final Recorder latency = new Recorder(3);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private Histogram measured;
+
+        // the recorder hands out what it gathered only once, so the first read is kept for the later ones
+        private Histogram measured() {
+            if (measured == null) {
+                measured = latency.getIntervalHistogram();
+            }
+            return measured;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.smarthealthcare.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Replays the request mix from {@code loadtest.concurrency} virtual-thread
+ * workers, each logged in as a random patient.
+ * <p>
+ * With {@code loadtest.rate=0} every worker sends its next request as soon as
+ * the last one returns. With a rate, requests are scheduled at fixed intervals
+ * and latency is measured from the scheduled time, so a stall is charged to
+ * every request it delayed instead of hiding behind the one that was slow.
+ */
+final class LoadDriver {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    // log in again this long before the access token runs out
+    private static final long TOKEN_MARGIN_NANOS = Duration.ofSeconds(30).toNanos();
+
+    private final String baseUrl;
+    private final LoadTestSettings settings;
+    private final DataSeeder.SeedData seedData;
+    private final LatencyReport report = new LatencyReport();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final byte[] recordImage;
+
+    private volatile boolean measuring;
+
+    LoadDriver(String baseUrl, LoadTestSettings settings, DataSeeder.SeedData seedData) {
+        this.baseUrl = baseUrl;
+        this.settings = settings;
+        this.seedData = seedData;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        Map<Operation, Integer> mix = settings.mix();
+        this.operations = mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += mix.get(operations[i]);
+            cumulativeWeights[i] = sum;
+        }
+        this.recordImage = renderRecordImage();
+    }
+
+    /**
+     * Runs the warm-up and then the measured window, and returns the report
+     * for the measured window only. {@code onMeasuring} runs when the warm-up ends.
+     */
+    LatencyReport run(Runnable onMeasuring) throws InterruptedException {
+        long warmupEnds = System.nanoTime() + settings.warmup().toNanos();
+        long ends = warmupEnds + settings.duration().toNanos();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < settings.concurrency(); i++) {
+                long seed = i;
+                workers.submit(() -> {
+                    work(new SplittableRandom(seed), ends);
+                    return null;
+                });
+            }
+            Thread.sleep(Duration.ofNanos(Math.max(0, warmupEnds - System.nanoTime())));
+            report.reset();
+            onMeasuring.run();
+            measuring = true;
+        }
+        return report;
+    }
+
+    private void work(SplittableRandom random, long ends) throws InterruptedException {
+        long interval = settings.rate() > 0 ? (long) (1e9 * settings.concurrency() / settings.rate()) : 0;
+        long next = System.nanoTime() + (interval > 0 ? random.nextLong(interval) : 0);
+        Session session = new Session();
+
+        while (System.nanoTime() < ends) {
+            if (session.needsLogin() && login(session, random) != 200) {
+                // the application is not taking logins right now, do not spin
+                Thread.sleep(100);
+                continue;
+            }
+
+            Operation operation = pick(random);
+            long started;
+            if (interval > 0) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    Thread.sleep(Duration.ofNanos(wait));
+                }
+                started = next;
+                next += interval;
+            } else {
+                started = System.nanoTime();
+            }
+
+            int status = execute(operation, session, random);
+            if (measuring) {
+                report.record(operation, System.nanoTime() - started, outcome(operation, status));
+            }
+        }
+    }
+
+    private int execute(Operation operation, Session session, SplittableRandom random) throws InterruptedException {
+        return switch (operation) {
+            case LOGIN -> login(session, random);
+            case NEAREST -> send(authorized(session, "/hospitals/find-nearest?lat="
+                    + random.nextDouble(DataSeeder.MIN_LATITUDE, DataSeeder.MAX_LATITUDE)
+                    + "&lon=" + random.nextDouble(DataSeeder.MIN_LONGITUDE, DataSeeder.MAX_LONGITUDE)
+                    + "&radius=" + settings.radiusKm()).GET().build());
+            case BOOK -> send(authorized(session, "/appointments")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(bookingBody(session, random)))
+                    .build());
+            case APPOINTMENTS -> send(authorized(session, "/appointments/patient/" + session.userId + "?size=20")
+                    .GET().build());
+            case UPLOAD -> upload(session, random);
+            case DOWNLOAD -> send(authorized(session, "/medical-records/files/" + seedData.recordFileKey())
+                    .GET().build());
+        };
+    }
+
+    private int login(Session session, SplittableRandom random) throws InterruptedException {
+        String email = seedData.patientEmails().get(random.nextInt(seedData.patientEmails().size()));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json(Map.of("email", email,
+                        "password", settings.password()))))
+                .build();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() == 200) {
+                JsonNode body = objectMapper.readTree(response.body());
+                session.token = body.get("accessToken").asText();
+                session.userId = body.get("id").asLong();
+                session.expiresAt = System.nanoTime() + Duration.ofSeconds(body.get("expiresIn").asLong()).toNanos();
+            }
+            return response.statusCode();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private String bookingBody(Session session, SplittableRandom random) {
+        return json(Map.of(
+                "doctorId", seedData.doctorIds().get(random.nextInt(seedData.doctorIds().size())),
+                "patientId", session.userId,
+                "date", LocalDate.now().plusDays(1 + random.nextInt(DataSeeder.BOOKING_DAYS)).toString(),
+                "time", DataSeeder.slotTime(random.nextInt(DataSeeder.SLOTS_PER_DAY), settings.slotMinutes())
+                        .toString()));
+    }
+
+    private int upload(Session session, SplittableRandom random) throws InterruptedException {
+        String boundary = "loadtest" + Long.toHexString(random.nextLong());
+        ByteArrayOutputStream body = new ByteArrayOutputStream(recordImage.length + 256);
+        body.writeBytes(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"lab-report.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        body.writeBytes(recordImage);
+        // bytes after the PNG end chunk are ignored by readers but keep uploads from being deduplicated
+        byte[] salt = new byte[16];
+        random.nextBytes(salt);
+        body.writeBytes(salt);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+
+        return send(authorized(session, "/medical-records/upload?patientId=" + session.userId + "&notes=load+test")
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build());
+    }
+
+    private HttpRequest.Builder authorized(Session session, String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + session.token);
+    }
+
+    private int send(HttpRequest request) throws InterruptedException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private Operation pick(SplittableRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private static LatencyReport.Outcome outcome(Operation operation, int status) {
+        if (status >= 200 && status < 300) {
+            return LatencyReport.Outcome.OK;
+        }
+        if (operation == Operation.BOOK && status == 409) {
+            return LatencyReport.Outcome.REJECTED;
+        }
+        return LatencyReport.Outcome.ERROR;
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static byte[] renderRecordImage() {
+        BufferedImage image = new BufferedImage(800, 240, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            graphics.setColor(Color.BLACK);
+            graphics.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 28));
+            graphics.drawString("Haemoglobin     13.8 g/dL", 40, 70);
+            graphics.drawString("Blood pressure  120/80 mmHg", 40, 130);
+            graphics.drawString("No abnormalities detected", 40, 190);
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", png);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return png.toByteArray();
+    }
+
+    private static final class Session {
+        private String token;
+        private long userId;
+        private long expiresAt;
+
+        private boolean needsLogin() {
+            return token == null || expiresAt - System.nanoTime() < TOKEN_MARGIN_NANOS;
+        }
+    }
+}
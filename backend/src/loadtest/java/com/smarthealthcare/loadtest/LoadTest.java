@@ -0,0 +1,162 @@
+package com.smarthealthcare.loadtest;
+
+import com.smarthealthcare.SmartHealthcareApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Boots the backend with the {@code loadtest} profile (in-memory H2, in-memory
+ * file storage, random ports), seeds it, opens the appointment event streams
+ * of simulated subscribers, replays the request mix over HTTP and prints
+ * throughput and latency percentiles per endpoint. Any
+ * {@code loadtest.*} or {@code app.*} property can be overridden with a
+ * command line argument or an environment variable such as
+ * {@code LOADTEST_CONCURRENCY}.
+ * <p>
+ * With {@code loadtest.compare-threads=true} the application is booted twice
+ * with the {@code loadtest-threads} profile added, first on platform and then
+ * on virtual request threads, each run on a database of its own, and the p99
+ * per endpoint of both runs is reported side by side.
+ * <p>
+ * The load generator shares the machine with the application, so the numbers
+ * are for comparing builds on the same hardware rather than for capacity
+ * planning. Exits with 1 when the error rate is above
+ * {@code loadtest.max-error-percent}.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) {
+        // read before anything boots, so it can only come from the command line or the environment
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+
+        int exitCode;
+        try {
+            exitCode = environment.getProperty("loadtest.compare-threads", Boolean.class, false)
+                    ? compareThreads(args)
+                    : single(args);
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 1;
+        }
+        System.exit(exitCode);
+    }
+
+    private static int single(String[] args) throws Exception {
+        Run run = run(args, "loadtest");
+        write(run.settings().report(), run.text());
+        return checkErrors(run, "");
+    }
+
+    private static int compareThreads(String[] args) throws Exception {
+        Map<String, Run> runs = new LinkedHashMap<>();
+        for (boolean virtual : new boolean[] { false, true }) {
+            String threads = virtual ? "virtual" : "platform";
+            // the second run starts from an empty database, index and staging area like the first
+            String[] runArgs = Stream.concat(Arrays.stream(args), Stream.of(
+                    "--spring.threads.virtual.enabled=" + virtual,
+                    "--spring.datasource.url=jdbc:h2:mem:loadtest-" + threads + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                    "--app.search.index-dir=target/loadtest/" + threads + "/medical-record-index",
+                    "--app.ingestion.staging-dir=target/loadtest/" + threads + "/upload-staging"))
+                    .toArray(String[]::new);
+            runs.put(threads + " threads", run(runArgs, "loadtest", "loadtest-threads"));
+        }
+
+        Run first = runs.values().iterator().next();
+        LoadTestSettings settings = first.settings();
+        String title = String.format("Platform vs virtual request threads: %d workers, %s, %d s measured after "
+                        + "%d s warm-up each; storage answers after %d ms, platform runs get %d request threads",
+                settings.concurrency(),
+                settings.rate() > 0 ? "paced to " + settings.rate() + " req/s" : "closed loop",
+                settings.duration().toSeconds(), settings.warmup().toSeconds(),
+                first.storageLatencyMillis(), first.platformRequestThreads());
+        Map<String, LatencyReport> reports = new LinkedHashMap<>();
+        runs.forEach((threads, run) -> reports.put(threads, run.report()));
+        String comparison = LatencyReport.compare(title, reports, settings.duration());
+        System.out.println();
+        System.out.println(comparison);
+        StringBuilder text = new StringBuilder(comparison);
+        runs.values().forEach(run -> text.append(System.lineSeparator()).append(run.text()));
+        write(settings.report(), text.toString());
+
+        int exitCode = 0;
+        for (Map.Entry<String, Run> entry : runs.entrySet()) {
+            exitCode = Math.max(exitCode, checkErrors(entry.getValue(), " with " + entry.getKey()));
+        }
+        return exitCode;
+    }
+
+    // boots, seeds and measures once; the application is shut down again before this returns
+    private static Run run(String[] args, String... profiles) throws Exception {
+        SpringApplication application = new SpringApplication(SmartHealthcareApplication.class);
+        application.setAdditionalProfiles(profiles);
+        try (ConfigurableApplicationContext context = application.run(args)) {
+            return measure(context);
+        }
+    }
+
+    private static Run measure(ConfigurableApplicationContext context) throws Exception {
+        Environment environment = context.getEnvironment();
+        LoadTestSettings settings = LoadTestSettings.from(environment);
+        DataSeeder.SeedData seedData = new DataSeeder(context, settings).seed();
+
+        String baseUrl = "http://localhost:" + environment.getRequiredProperty("local.server.port") + "/api";
+        SubscriberLoad subscribers = new SubscriberLoad(baseUrl, settings, seedData);
+        subscribers.open();
+        LatencyReport report;
+        try {
+            report = new LoadDriver(baseUrl, settings, seedData).run(subscribers::reset);
+        } finally {
+            subscribers.close();
+        }
+
+        boolean virtualThreads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        String title = String.format("Load test: %d workers, %s, %d s measured after %d s warm-up, %s request "
+                        + "threads; %d hospitals, %d doctors, %d patients, %d appointments seeded",
+                settings.concurrency(),
+                settings.rate() > 0 ? "paced to " + settings.rate() + " req/s" : "closed loop",
+                settings.duration().toSeconds(), settings.warmup().toSeconds(),
+                virtualThreads ? "virtual" : "platform",
+                settings.hospitals(), settings.doctors(), settings.patients(), settings.appointments());
+        String text = report.format(title, settings.duration()) + System.lineSeparator()
+                + subscribers.format(settings.duration());
+        System.out.println();
+        System.out.println(text);
+        return new Run(settings, report, text,
+                environment.getProperty("app.storage.memory.latency-ms", Long.class, 0L),
+                environment.getProperty("server.tomcat.threads.max", Integer.class, 200));
+    }
+
+    private static void write(Path report, String text) throws Exception {
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        Files.writeString(report, text);
+    }
+
+    private static int checkErrors(Run run, String context) {
+        if (run.report().errorPercent() > run.settings().maxErrorPercent()) {
+            System.err.printf("Error rate %.2f%%%s is above loadtest.max-error-percent=%s%n",
+                    run.report().errorPercent(), context, run.settings().maxErrorPercent());
+            return 1;
+        }
+        return 0;
+    }
+
+    private record Run(LoadTestSettings settings, LatencyReport report, String text, long storageLatencyMillis,
+            int platformRequestThreads) {
+    }
+}
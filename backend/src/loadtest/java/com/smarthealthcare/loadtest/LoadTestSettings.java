@@ -0,0 +1,57 @@
+package com.smarthealthcare.loadtest;
+
+import org.springframework.core.env.Environment;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The {@code loadtest.*} properties, see application-loadtest.properties.
+ */
+record LoadTestSettings(int hospitals, int doctors, int patients, int appointments, String password,
+        int concurrency, double rate, Duration warmup, Duration duration, Map<Operation, Integer> mix,
+        double radiusKm, int slotMinutes, int subscribers, int streamsPerClient, double maxErrorPercent,
+        Path report) {
+
+    static LoadTestSettings from(Environment environment) {
+        return new LoadTestSettings(
+                environment.getRequiredProperty("loadtest.hospitals", Integer.class),
+                environment.getRequiredProperty("loadtest.doctors", Integer.class),
+                environment.getRequiredProperty("loadtest.patients", Integer.class),
+                environment.getRequiredProperty("loadtest.appointments", Integer.class),
+                environment.getRequiredProperty("loadtest.password"),
+                environment.getRequiredProperty("loadtest.concurrency", Integer.class),
+                environment.getRequiredProperty("loadtest.rate", Double.class),
+                Duration.ofSeconds(environment.getRequiredProperty("loadtest.warmup-seconds", Long.class)),
+                Duration.ofSeconds(environment.getRequiredProperty("loadtest.duration-seconds", Long.class)),
+                parseMix(environment.getRequiredProperty("loadtest.mix")),
+                environment.getRequiredProperty("loadtest.radius-km", Double.class),
+                environment.getProperty("app.booking.slot-minutes", Integer.class, 30),
+                environment.getRequiredProperty("loadtest.subscribers", Integer.class),
+                environment.getProperty("app.events.max-streams-per-client", Integer.class, 5),
+                environment.getRequiredProperty("loadtest.max-error-percent", Double.class),
+                Path.of(environment.getRequiredProperty("loadtest.report")));
+    }
+
+    // "login:5,nearest:50,..." -> weight per operation; operations left out are not sent
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight in loadtest.mix, got " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in loadtest.mix: " + entry);
+            }
+            weights.put(Operation.fromKey(parts[0].trim()), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("loadtest.mix needs at least one positive weight");
+        }
+        return weights;
+    }
+}
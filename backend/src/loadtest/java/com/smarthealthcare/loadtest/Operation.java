@@ -0,0 +1,34 @@
+package com.smarthealthcare.loadtest;
+
+/**
+ * The requests the load test replays, keyed as in {@code loadtest.mix}.
+ */
+enum Operation {
+    LOGIN("login", "POST /api/auth/login"),
+    NEAREST("nearest", "GET /api/hospitals/find-nearest"),
+    BOOK("book", "POST /api/appointments"),
+    APPOINTMENTS("appointments", "GET /api/appointments/patient/{id}"),
+    UPLOAD("upload", "POST /api/medical-records/upload"),
+    DOWNLOAD("download", "GET /api/medical-records/files/{key}");
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown load test operation: " + key);
+    }
+}
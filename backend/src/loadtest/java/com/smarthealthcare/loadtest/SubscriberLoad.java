@@ -0,0 +1,184 @@
+package com.smarthealthcare.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Holds {@code loadtest.subscribers} appointment event streams open while the
+ * request mix runs. Each is signed in as a seeded doctor and follows one
+ * doctor's calendar, so bookings in the mix fan out to them. Reports how many
+ * streams were accepted, how long they took to open, and how many events
+ * and heartbeats arrived in the measured window.
+ */
+final class SubscriberLoad {
+
+    private final String baseUrl;
+    private final LoadTestSettings settings;
+    private final DataSeeder.SeedData seedData;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client;
+
+    private final Histogram connectLatency = new Histogram(3);
+    private final Map<Integer, Integer> refused = new HashMap<>();
+    private final List<Stream<String>> streams = new ArrayList<>();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder heartbeats = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicBoolean closing = new AtomicBoolean();
+
+    SubscriberLoad(String baseUrl, LoadTestSettings settings, DataSeeder.SeedData seedData) {
+        this.baseUrl = baseUrl;
+        this.settings = settings;
+        this.seedData = seedData;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Opens every stream and waits until each has been accepted or refused.
+     */
+    void open() throws IOException, InterruptedException {
+        int count = settings.subscribers();
+        if (count == 0 || seedData.doctorEmails().isEmpty()) {
+            return;
+        }
+
+        // as few sign-ins as the per-client stream limit allows, streams spread over them round robin
+        int doctors = (count + settings.streamsPerClient() - 1) / settings.streamsPerClient();
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < Math.min(doctors, seedData.doctorEmails().size()); i++) {
+            tokens.add(login(seedData.doctorEmails().get(i)));
+        }
+
+        List<CompletableFuture<Void>> opening = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long doctorId = seedData.doctorIds().get(i % seedData.doctorIds().size());
+            HttpRequest request = HttpRequest.newBuilder(
+                            URI.create(baseUrl + "/appointments/doctor/" + doctorId + "/events"))
+                    .header("Accept", "text/event-stream")
+                    .header("Authorization", "Bearer " + tokens.get(i % tokens.size()))
+                    .GET()
+                    .build();
+            long started = System.nanoTime();
+            opening.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                    .thenAccept(response -> accepted(response, System.nanoTime() - started))
+                    .exceptionally(e -> {
+                        refused(-1);
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(opening.toArray(new CompletableFuture[0])).join();
+    }
+
+    // drops what was counted during the warm-up
+    void reset() {
+        events.reset();
+        heartbeats.reset();
+        dropped.reset();
+    }
+
+    void close() {
+        closing.set(true);
+        synchronized (streams) {
+            streams.forEach(Stream::close);
+        }
+    }
+
+    String format(Duration measured) {
+        double seconds = measured.toNanos() / 1e9;
+        int accepted;
+        synchronized (connectLatency) {
+            accepted = (int) connectLatency.getTotalCount();
+        }
+        StringBuilder report = new StringBuilder(String.format("Event streams: %d requested, %d accepted",
+                settings.subscribers(), accepted));
+        synchronized (refused) {
+            refused.forEach((status, count) -> report.append(String.format(", %d refused with %s", count,
+                    status < 0 ? "a connection error" : status)));
+        }
+        report.append(System.lineSeparator());
+        if (accepted > 0) {
+            synchronized (connectLatency) {
+                report.append(String.format("  open: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                        connectLatency.getValueAtPercentile(50) / 1e6,
+                        connectLatency.getValueAtPercentile(99) / 1e6, connectLatency.getMaxValue() / 1e6));
+            }
+            report.append(String.format("  measured window: %d appointment events (%.1f/s), %d heartbeats, "
+                    + "%d streams closed by the server%n", events.sum(), events.sum() / seconds, heartbeats.sum(),
+                    dropped.sum()));
+        }
+        return report.toString();
+    }
+
+    private void accepted(HttpResponse<Stream<String>> response, long latencyNanos) {
+        if (response.statusCode() != 200) {
+            response.body().close();
+            refused(response.statusCode());
+            return;
+        }
+        synchronized (connectLatency) {
+            connectLatency.recordValue(latencyNanos);
+        }
+        synchronized (streams) {
+            streams.add(response.body());
+        }
+        Thread.startVirtualThread(() -> read(response.body()));
+    }
+
+    private void read(Stream<String> lines) {
+        try {
+            lines.forEach(line -> {
+                if (line.startsWith("event:appointment")) {
+                    events.increment();
+                } else if (line.startsWith(":")) {
+                    heartbeats.increment();
+                }
+            });
+        } catch (RuntimeException e) {
+            // the stream was cut, counted below unless we closed it ourselves
+        }
+        if (!closing.get()) {
+            dropped.increment();
+        }
+    }
+
+    private void refused(int status) {
+        synchronized (refused) {
+            refused.merge(status, 1, Integer::sum);
+        }
+    }
+
+    private String login(String email) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                        Map.of("email", email, "password", settings.password()))))
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Signing in " + email + " returned " + response.statusCode());
+        }
+        JsonNode body = objectMapper.readTree(response.body());
+        return body.get("accessToken").asText();
+    }
+}
@@ -2,8 +2,6 @@ package com.smarthealthcare;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
-import org.modelmapper.ModelMapper;
 
 @SpringBootApplication
 public class SmartHealthcareApplication {
@@ -11,9 +9,4 @@ public class SmartHealthcareApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(SmartHealthcareApplication.class, args);
 	}
-
-	@Bean
-	public ModelMapper modelMapper() {
-		return new ModelMapper();
-	}
 }
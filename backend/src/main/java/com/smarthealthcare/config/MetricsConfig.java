@@ -0,0 +1,108 @@
+package com.smarthealthcare.config;
+
+import com.smarthealthcare.security.JwtAuthenticationCache;
+import com.smarthealthcare.security.TokenRevocationList;
+import com.smarthealthcare.service.impl.ChangeEventBroadcaster;
+import com.smarthealthcare.service.impl.DoctorSearchIndex;
+import com.smarthealthcare.service.impl.HospitalGeoIndex;
+import com.smarthealthcare.service.impl.MedicalRecordIngestionPipeline;
+import com.smarthealthcare.service.impl.MedicalRecordSearchIndex;
+import com.smarthealthcare.service.impl.OcrService;
+import com.smarthealthcare.service.impl.ReadThroughCache;
+import com.smarthealthcare.service.impl.ReferenceDataCache;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Wires the in-memory indexes, caches and pools into Micrometer. Everything
+ * here is read at scrape time from counters the components keep anyway, so
+ * it adds nothing to the request path. Service methods annotated with
+ * {@code @Timed} are timed through the aspect.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder referenceCacheMetrics(ReferenceDataCache referenceDataCache) {
+        return registry -> {
+            for (ReadThroughCache.Stats stats : referenceDataCache.getStats()) {
+                String name = stats.name();
+                // same names and tags as Micrometer's own cache binders, so stock dashboards work
+                cacheCounter(registry, "cache.gets", name, referenceDataCache, s -> s.hits(), "result", "hit");
+                cacheCounter(registry, "cache.gets", name, referenceDataCache, s -> s.misses(), "result", "miss");
+                cacheCounter(registry, "cache.evictions", name, referenceDataCache, s -> s.evictions());
+                cacheCounter(registry, "cache.invalidations", name, referenceDataCache, s -> s.invalidations());
+                Gauge.builder("cache.size", referenceDataCache, cache -> statsOf(cache, name).size())
+                        .tag("cache", name)
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder ocrMetrics(OcrService ocrService) {
+        return registry -> {
+            Gauge.builder("healthcare.ocr.engines", ocrService, ocr -> ocr.getStats().poolSize())
+                    .description("Size of the OCR engine pool")
+                    .register(registry);
+            Gauge.builder("healthcare.ocr.engines.idle", ocrService, ocr -> ocr.getStats().idleEngines())
+                    .register(registry);
+            FunctionCounter.builder("healthcare.ocr.timeouts", ocrService, ocr -> ocr.getStats().timeouts())
+                    .description("OCR calls that gave up waiting for an engine")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder componentMetrics(MedicalRecordIngestionPipeline ingestionPipeline,
+            ChangeEventBroadcaster changeEventBroadcaster,
+            HospitalGeoIndex hospitalGeoIndex,
+            DoctorSearchIndex doctorSearchIndex,
+            MedicalRecordSearchIndex medicalRecordSearchIndex,
+            JwtAuthenticationCache jwtAuthenticationCache,
+            TokenRevocationList tokenRevocationList) {
+        return registry -> {
+            Gauge.builder("healthcare.ingestion.in.flight", ingestionPipeline,
+                    MedicalRecordIngestionPipeline::inFlightCount).register(registry);
+            Gauge.builder("healthcare.events.subscribers", changeEventBroadcaster,
+                    ChangeEventBroadcaster::subscriberCount).register(registry);
+            Gauge.builder("healthcare.geo.index.size", hospitalGeoIndex, HospitalGeoIndex::size)
+                    .register(registry);
+            Gauge.builder("healthcare.doctor.search.index.size", doctorSearchIndex, DoctorSearchIndex::size)
+                    .register(registry);
+            Gauge.builder("healthcare.search.index.size", medicalRecordSearchIndex, MedicalRecordSearchIndex::size)
+                    .register(registry);
+            Gauge.builder("healthcare.auth.jwt.cache.size", jwtAuthenticationCache, JwtAuthenticationCache::size)
+                    .register(registry);
+            Gauge.builder("healthcare.auth.revoked.tokens", tokenRevocationList, TokenRevocationList::size)
+                    .register(registry);
+        };
+    }
+
+    private static void cacheCounter(MeterRegistry registry, String meter, String name, ReferenceDataCache cache,
+            ToDoubleFunction<ReadThroughCache.Stats> value, String... tags) {
+        FunctionCounter.builder(meter, cache, c -> value.applyAsDouble(statsOf(c, name)))
+                .tag("cache", name)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static ReadThroughCache.Stats statsOf(ReferenceDataCache cache, String name) {
+        return cache.getStats().stream()
+                .filter(stats -> stats.name().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
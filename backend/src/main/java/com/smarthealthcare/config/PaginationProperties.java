@@ -0,0 +1,21 @@
+package com.smarthealthcare.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PaginationProperties {
+
+    @Value("${app.pagination.default-page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-page-size:1000}")
+    private int maxPageSize;
+
+    public int resolvePageSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(requested, maxPageSize);
+    }
+}
@@ -0,0 +1,109 @@
+package com.smarthealthcare.config;
+
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only service transactions to the replicas, round robin, and
+ * everything else to the primary. A user who committed a write within the lag
+ * tolerance keeps reading from the primary, so a patient sees the appointment
+ * they just booked even while the replicas catch up.
+ * <p>
+ * The read-only transactions Spring Data opens around findById and friends
+ * stay on the primary: write paths such as booking load the rows they are
+ * about to change that way, outside their own transaction.
+ * <p>
+ * The key is looked up when a connection is fetched, so this has to sit
+ * behind a LazyConnectionDataSourceProxy: the transaction manager asks for a
+ * connection before the read-only flag of the transaction is published.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPOSITORY_TRANSACTION = SimpleJpaRepository.class.getName() + ".";
+    // writers older than the tolerance are dropped once the map grows past this
+    private static final int PURGE_THRESHOLD = 1024;
+
+    private final List<? extends DataSource> replicas;
+    private final long lagToleranceNanos;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Long> recentWriters = new ConcurrentHashMap<>();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<? extends DataSource> replicas,
+            long lagToleranceMillis) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(replicaKey(i), replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        this.replicas = replicas;
+        this.lagToleranceNanos = lagToleranceMillis * 1_000_000;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        wrote(user);
+                    }
+                });
+            }
+            return PRIMARY;
+        }
+        String transaction = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (replicas.isEmpty() || (transaction != null && transaction.startsWith(REPOSITORY_TRANSACTION))
+                || (user != null && wroteRecently(user))) {
+            return PRIMARY;
+        }
+        return replicaKey(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+    }
+
+    // the replica pools belong to this router, the primary is a bean of its own
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void wrote(String user) {
+        long now = System.nanoTime();
+        recentWriters.put(user, now);
+        if (recentWriters.size() > PURGE_THRESHOLD) {
+            recentWriters.values().removeIf(at -> now - at > lagToleranceNanos);
+        }
+    }
+
+    private boolean wroteRecently(String user) {
+        Long at = recentWriters.get(user);
+        return at != null && System.nanoTime() - at <= lagToleranceNanos;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+
+    private static String replicaKey(int index) {
+        return "replica-" + (index + 1);
+    }
+}
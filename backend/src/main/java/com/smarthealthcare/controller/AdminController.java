@@ -0,0 +1,65 @@
+package com.smarthealthcare.controller;
+
+import com.smarthealthcare.dto.ImportResultDto;
+import com.smarthealthcare.service.BulkImportService;
+import com.smarthealthcare.service.impl.MedicalRecordSearchIndex;
+import com.smarthealthcare.service.impl.ReadThroughCache;
+import com.smarthealthcare.service.impl.ReferenceDataCache;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminController {
+
+    private ReferenceDataCache referenceDataCache;
+    private MedicalRecordSearchIndex medicalRecordSearchIndex;
+    private BulkImportService bulkImportService;
+
+    public AdminController(ReferenceDataCache referenceDataCache, MedicalRecordSearchIndex medicalRecordSearchIndex,
+            BulkImportService bulkImportService) {
+        this.referenceDataCache = referenceDataCache;
+        this.medicalRecordSearchIndex = medicalRecordSearchIndex;
+        this.bulkImportService = bulkImportService;
+    }
+
+    @GetMapping("/caches")
+    public ResponseEntity<List<ReadThroughCache.Stats>> getCacheStats() {
+        return ResponseEntity.ok(referenceDataCache.getStats());
+    }
+
+    @DeleteMapping("/caches")
+    public ResponseEntity<String> clearCaches() {
+        referenceDataCache.invalidateAll();
+        return ResponseEntity.ok("Caches cleared successfully!.");
+    }
+
+    @PostMapping("/search-index/rebuild")
+    public ResponseEntity<String> rebuildSearchIndex() {
+        long indexed = medicalRecordSearchIndex.rebuild();
+        return ResponseEntity.ok("Search index rebuilt with " + indexed + " medical records.");
+    }
+
+    // the body is streamed row by row, so imports are not limited by the request size
+    @PostMapping(value = "/import/hospitals", consumes = { "text/csv", MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<ImportResultDto> importHospitals(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(bulkImportService.importHospitals(request.getInputStream(), request.getContentType()));
+    }
+
+    @PostMapping(value = "/import/doctors", consumes = { "text/csv", MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<ImportResultDto> importDoctors(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(bulkImportService.importDoctors(request.getInputStream(), request.getContentType()));
+    }
+
+    @PostMapping(value = "/import/users", consumes = { "text/csv", MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<ImportResultDto> importUsers(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(bulkImportService.importUsers(request.getInputStream(), request.getContentType()));
+    }
+}
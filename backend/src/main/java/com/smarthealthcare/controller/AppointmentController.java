@@ -1,11 +1,18 @@
 package com.smarthealthcare.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthealthcare.config.PaginationProperties;
 import com.smarthealthcare.dto.AppointmentDto;
 import com.smarthealthcare.service.AppointmentService;
+import com.smarthealthcare.service.impl.ChangeEventBroadcaster;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -14,9 +21,16 @@ import java.util.List;
 public class AppointmentController {
 
     private AppointmentService appointmentService;
+    private PaginationProperties paginationProperties;
+    private ObjectMapper objectMapper;
+    private ChangeEventBroadcaster changeEventBroadcaster;
 
-    public AppointmentController(AppointmentService appointmentService) {
+    public AppointmentController(AppointmentService appointmentService, PaginationProperties paginationProperties,
+            ObjectMapper objectMapper, ChangeEventBroadcaster changeEventBroadcaster) {
         this.appointmentService = appointmentService;
+        this.paginationProperties = paginationProperties;
+        this.objectMapper = objectMapper;
+        this.changeEventBroadcaster = changeEventBroadcaster;
     }
 
     @PostMapping
@@ -31,18 +45,60 @@ public class AppointmentController {
 
     @GetMapping("/patient/{patientId}")
     public ResponseEntity<List<AppointmentDto>> getAppointmentsByPatient(
+            @PathVariable(name = "patientId") Long patientId,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", required = false) Integer size) {
+        return ListResponses.page(appointmentService.getAppointmentsByPatient(patientId, after,
+                paginationProperties.resolvePageSize(size)));
+    }
+
+    @GetMapping(value = "/patient/{patientId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAppointmentsByPatient(
             @PathVariable(name = "patientId") Long patientId) {
-        return ResponseEntity.ok(appointmentService.getAppointmentsByPatient(patientId));
+        return ListResponses.<AppointmentDto>ndjson(objectMapper,
+                consumer -> appointmentService.streamAppointmentsByPatient(patientId, consumer));
+    }
+
+    @PreAuthorize("isAuthenticated() and (hasAnyRole('ADMIN', 'DOCTOR') or #patientId == principal.id)")
+    @GetMapping(value = "/patient/{patientId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToPatientAppointments(
+            @PathVariable(name = "patientId") Long patientId, HttpServletRequest request) {
+        return subscribe(ChangeEventBroadcaster.patientTopic(patientId), request);
     }
 
     @GetMapping("/doctor/{doctorId}")
     public ResponseEntity<List<AppointmentDto>> getAppointmentsByDoctor(
+            @PathVariable(name = "doctorId") Long doctorId,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", required = false) Integer size) {
+        return ListResponses.page(appointmentService.getAppointmentsByDoctor(doctorId, after,
+                paginationProperties.resolvePageSize(size)));
+    }
+
+    @GetMapping(value = "/doctor/{doctorId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAppointmentsByDoctor(
             @PathVariable(name = "doctorId") Long doctorId) {
-        return ResponseEntity.ok(appointmentService.getAppointmentsByDoctor(doctorId));
+        return ListResponses.<AppointmentDto>ndjson(objectMapper,
+                consumer -> appointmentService.streamAppointmentsByDoctor(doctorId, consumer));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
+    @GetMapping(value = "/doctor/{doctorId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToDoctorAppointments(
+            @PathVariable(name = "doctorId") Long doctorId, HttpServletRequest request) {
+        return subscribe(ChangeEventBroadcaster.doctorTopic(doctorId), request);
     }
 
     @PutMapping("/{id}/cancel")
     public ResponseEntity<AppointmentDto> cancelAppointment(@PathVariable(name = "id") Long id) {
         return ResponseEntity.ok(appointmentService.cancelAppointment(id));
     }
+
+    // no error body on a refused stream, an event-stream client cannot accept JSON
+    private ResponseEntity<SseEmitter> subscribe(String topic, HttpServletRequest request) {
+        SseEmitter emitter = changeEventBroadcaster.subscribe(topic, ChangeEventBroadcaster.clientOf(request));
+        return emitter != null
+                ? ResponseEntity.ok(emitter)
+                : ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+    }
 }
@@ -2,54 +2,59 @@ package com.smarthealthcare.controller;
 
 import com.smarthealthcare.dto.JwtAuthResponse;
 import com.smarthealthcare.dto.LoginDto;
+import com.smarthealthcare.dto.RefreshTokenDto;
 import com.smarthealthcare.dto.RegisterDto;
-import com.smarthealthcare.entity.User;
-import com.smarthealthcare.repository.UserRepository;
 import com.smarthealthcare.service.AuthService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
     private AuthService authService;
-    private UserRepository userRepository;
 
-    public AuthController(AuthService authService, UserRepository userRepository) {
+    public AuthController(AuthService authService) {
         this.authService = authService;
-        this.userRepository = userRepository;
     }
 
     // Build Login REST API
     @PostMapping(value = { "/login", "/signin" })
-    public ResponseEntity<JwtAuthResponse> login(@RequestBody LoginDto loginDto) {
-        String token = authService.login(loginDto);
-
-        JwtAuthResponse jwtAuthResponse = new JwtAuthResponse();
-        jwtAuthResponse.setAccessToken(token);
-
-        String role = ((org.springframework.security.core.userdetails.User) org.springframework.security.core.context.SecurityContextHolder
-                .getContext().getAuthentication().getPrincipal()).getAuthorities().stream().findFirst().get()
-                .getAuthority();
-        jwtAuthResponse.setRole(role);
+    public CompletableFuture<ResponseEntity<JwtAuthResponse>> login(@RequestBody LoginDto loginDto) {
+        // completes off the servlet thread once the password has been checked
+        return authService.login(loginDto).thenApply(ResponseEntity::ok);
+    }
 
-        User user = userRepository.findByEmail(loginDto.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        jwtAuthResponse.setId(user.getId());
-        jwtAuthResponse.setName(user.getName());
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtAuthResponse> refresh(@RequestBody RefreshTokenDto refreshTokenDto) {
+        return ResponseEntity.ok(authService.refresh(refreshTokenDto.getRefreshToken()));
+    }
 
-        return ResponseEntity.ok(jwtAuthResponse);
+    // ends the login both tokens belong to; either one is enough
+    @PostMapping("/logout")
+    public ResponseEntity<String> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenDto refreshTokenDto) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        authService.logout(accessToken, refreshTokenDto != null ? refreshTokenDto.getRefreshToken() : null);
+        return ResponseEntity.ok("Logged out successfully!.");
     }
 
     // Build Register REST API
     @PostMapping(value = { "/register", "/signup" })
-    public ResponseEntity<String> register(@RequestBody RegisterDto registerDto) {
-        String response = authService.register(registerDto);
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<String>> register(@RequestBody RegisterDto registerDto) {
+        // like login, completes off the servlet thread once the password has been hashed
+        return authService.register(registerDto)
+                .thenApply(response -> new ResponseEntity<>(response, HttpStatus.CREATED));
     }
 }
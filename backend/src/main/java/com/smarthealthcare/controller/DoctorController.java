@@ -1,12 +1,20 @@
 package com.smarthealthcare.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthealthcare.config.PaginationProperties;
+import com.smarthealthcare.dto.DoctorAvailabilityDto;
 import com.smarthealthcare.dto.DoctorDto;
+import com.smarthealthcare.dto.DoctorSlotDto;
 import com.smarthealthcare.service.DoctorService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -14,9 +22,14 @@ import java.util.List;
 public class DoctorController {
 
     private DoctorService doctorService;
+    private PaginationProperties paginationProperties;
+    private ObjectMapper objectMapper;
 
-    public DoctorController(DoctorService doctorService) {
+    public DoctorController(DoctorService doctorService, PaginationProperties paginationProperties,
+            ObjectMapper objectMapper) {
         this.doctorService = doctorService;
+        this.paginationProperties = paginationProperties;
+        this.objectMapper = objectMapper;
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -26,8 +39,15 @@ public class DoctorController {
     }
 
     @GetMapping
-    public ResponseEntity<List<DoctorDto>> getAllDoctors() {
-        return ResponseEntity.ok(doctorService.getAllDoctors());
+    public ResponseEntity<List<DoctorDto>> getAllDoctors(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", required = false) Integer size) {
+        return ListResponses.page(doctorService.getAllDoctors(after, paginationProperties.resolvePageSize(size)));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllDoctors() {
+        return ListResponses.ndjson(objectMapper, doctorService::streamAllDoctors);
     }
 
     @GetMapping("/{id}")
@@ -36,8 +56,33 @@ public class DoctorController {
     }
 
     @GetMapping("/hospital/{hospitalId}")
-    public ResponseEntity<List<DoctorDto>> getDoctorsByHospital(@PathVariable(name = "hospitalId") Long hospitalId) {
-        return ResponseEntity.ok(doctorService.getDoctorsByHospital(hospitalId));
+    public ResponseEntity<List<DoctorDto>> getDoctorsByHospital(@PathVariable(name = "hospitalId") Long hospitalId,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", required = false) Integer size) {
+        return ListResponses.page(doctorService.getDoctorsByHospital(hospitalId, after,
+                paginationProperties.resolvePageSize(size)));
+    }
+
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<List<DoctorAvailabilityDto>> getAvailability(@PathVariable(name = "id") Long id,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(doctorService.getAvailability(id, from, to));
+    }
+
+    @GetMapping("/first-available")
+    public ResponseEntity<DoctorSlotDto> findFirstAvailable(
+            @RequestParam("specialization") String specialization,
+            @RequestParam(value = "hospitalId", required = false) Long hospitalId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from) {
+        return ResponseEntity.ok(doctorService.findFirstAvailable(specialization, hospitalId, from));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<DoctorDto>> searchDoctors(@RequestParam("q") String query,
+            @RequestParam(value = "hospitalId", required = false) Long hospitalId,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(doctorService.searchDoctors(query, hospitalId, limit));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
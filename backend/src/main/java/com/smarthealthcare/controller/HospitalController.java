@@ -1,11 +1,18 @@
 package com.smarthealthcare.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthealthcare.config.PaginationProperties;
 import com.smarthealthcare.dto.HospitalDto;
 import com.smarthealthcare.service.HospitalService;
+import com.smarthealthcare.service.impl.ChangeEventBroadcaster;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -14,9 +21,16 @@ import java.util.List;
 public class HospitalController {
 
     private HospitalService hospitalService;
+    private PaginationProperties paginationProperties;
+    private ObjectMapper objectMapper;
+    private ChangeEventBroadcaster changeEventBroadcaster;
 
-    public HospitalController(HospitalService hospitalService) {
+    public HospitalController(HospitalService hospitalService, PaginationProperties paginationProperties,
+            ObjectMapper objectMapper, ChangeEventBroadcaster changeEventBroadcaster) {
         this.hospitalService = hospitalService;
+        this.paginationProperties = paginationProperties;
+        this.objectMapper = objectMapper;
+        this.changeEventBroadcaster = changeEventBroadcaster;
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -36,8 +50,24 @@ public class HospitalController {
     }
 
     @GetMapping
-    public ResponseEntity<List<HospitalDto>> getAllHospitals() {
-        return ResponseEntity.ok(hospitalService.getAllHospitals());
+    public ResponseEntity<List<HospitalDto>> getAllHospitals(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", required = false) Integer size) {
+        return ListResponses.page(hospitalService.getAllHospitals(after, paginationProperties.resolvePageSize(size)));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllHospitals() {
+        return ListResponses.ndjson(objectMapper, hospitalService::streamAllHospitals);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToBedChanges(HttpServletRequest request) {
+        SseEmitter emitter = changeEventBroadcaster.subscribe(ChangeEventBroadcaster.HOSPITAL_BEDS,
+                ChangeEventBroadcaster.clientOf(request));
+        return emitter != null
+                ? ResponseEntity.ok(emitter)
+                : ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
     }
 
     @GetMapping("/{id}")
@@ -59,11 +89,36 @@ public class HospitalController {
         return ResponseEntity.ok("Hospital deleted successfully!.");
     }
 
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
+    @PostMapping("/{id}/admit")
+    public ResponseEntity<HospitalDto> admitPatients(@PathVariable(name = "id") Long id,
+            @RequestParam(value = "count", defaultValue = "1") int count) {
+        return ResponseEntity.ok(hospitalService.admitPatients(id, count));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
+    @PostMapping("/{id}/discharge")
+    public ResponseEntity<HospitalDto> dischargePatients(@PathVariable(name = "id") Long id,
+            @RequestParam(value = "count", defaultValue = "1") int count) {
+        return ResponseEntity.ok(hospitalService.dischargePatients(id, count));
+    }
+
+    @GetMapping("/find-nearest-available")
+    public ResponseEntity<List<HospitalDto>> findNearestWithFreeBeds(
+            @RequestParam("lat") double lat,
+            @RequestParam("lon") double lon,
+            @RequestParam("radius") double radius,
+            @RequestParam(value = "minBeds", defaultValue = "1") int minBeds,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(hospitalService.findNearestWithFreeBeds(lat, lon, radius, minBeds, limit));
+    }
+
     @GetMapping("/find-nearest")
     public ResponseEntity<List<HospitalDto>> findNearestHospitals(
             @RequestParam("lat") double lat,
             @RequestParam("lon") double lon,
-            @RequestParam("radius") double radius) {
-        return ResponseEntity.ok(hospitalService.findNearestHospitals(lat, lon, radius));
+            @RequestParam("radius") double radius,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(hospitalService.findNearestHospitals(lat, lon, radius, limit));
     }
 }
@@ -0,0 +1,67 @@
+package com.smarthealthcare.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.smarthealthcare.dto.CursorPage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Shared response shapes for the list endpoints: a cursor page as a plain JSON
+ * array with the next cursor in a header, or an NDJSON stream of every row.
+ */
+final class ListResponses {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int FLUSH_EVERY_ROWS = 100;
+
+    private ListResponses() {
+    }
+
+    static <T> ResponseEntity<List<T>> page(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getItems());
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> ndjson(ObjectMapper objectMapper,
+            Consumer<Consumer<T>> producer) {
+        ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        StreamingResponseBody body = out -> {
+            int[] written = { 0 };
+            try {
+                producer.accept(row -> writeLine(writer, out, row, ++written[0]));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private static void writeLine(ObjectWriter writer, OutputStream out, Object row, int written) {
+        try {
+            writer.writeValue(out, row);
+            out.write('\n');
+            if (written % FLUSH_EVERY_ROWS == 0) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,11 +1,21 @@
 package com.smarthealthcare.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthealthcare.config.PaginationProperties;
 import com.smarthealthcare.dto.MedicalRecordDto;
+import com.smarthealthcare.dto.MedicalRecordSearchHitDto;
+import com.smarthealthcare.dto.MedicalRecordStatusDto;
 import com.smarthealthcare.service.MedicalRecordService;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
@@ -15,9 +25,15 @@ import java.util.List;
 public class MedicalRecordController {
 
     private MedicalRecordService medicalRecordService;
+    private PaginationProperties paginationProperties;
+    private ObjectMapper objectMapper;
 
-    public MedicalRecordController(MedicalRecordService medicalRecordService) {
+    public MedicalRecordController(MedicalRecordService medicalRecordService,
+            PaginationProperties paginationProperties,
+            ObjectMapper objectMapper) {
         this.medicalRecordService = medicalRecordService;
+        this.paginationProperties = paginationProperties;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/upload")
@@ -26,18 +42,61 @@ public class MedicalRecordController {
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "notes", required = false) String notes) throws IOException {
 
+        // processing continues in the background, poll the status endpoint for completion
         return new ResponseEntity<>(medicalRecordService.uploadMedicalRecord(patientId, file, notes),
-                HttpStatus.CREATED);
+                HttpStatus.ACCEPTED);
     }
 
     @GetMapping("/patient/{patientId}")
     public ResponseEntity<List<MedicalRecordDto>> getMedicalRecordsByPatient(
+            @PathVariable(name = "patientId") Long patientId,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", required = false) Integer size) {
+        return ListResponses.page(medicalRecordService.getMedicalRecordsByPatient(patientId, after,
+                paginationProperties.resolvePageSize(size)));
+    }
+
+    @GetMapping(value = "/patient/{patientId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMedicalRecordsByPatient(
             @PathVariable(name = "patientId") Long patientId) {
-        return ResponseEntity.ok(medicalRecordService.getMedicalRecordsByPatient(patientId));
+        return ListResponses.<MedicalRecordDto>ndjson(objectMapper,
+                consumer -> medicalRecordService.streamMedicalRecordsByPatient(patientId, consumer));
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping("/patient/{patientId}/search")
+    public ResponseEntity<List<MedicalRecordSearchHitDto>> searchPatientRecords(
+            @PathVariable(name = "patientId") Long patientId,
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(medicalRecordService.searchPatientRecords(patientId, query, limit));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
+    @GetMapping("/search")
+    public ResponseEntity<List<MedicalRecordSearchHitDto>> searchAllRecords(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(medicalRecordService.searchAllRecords(query, limit));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<MedicalRecordDto> getMedicalRecordById(@PathVariable(name = "id") Long id) {
         return ResponseEntity.ok(medicalRecordService.getMedicalRecordById(id));
     }
+
+    // Range requests are answered by Spring for Resource bodies; medical files are never kept in caches
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping("/files/{key}")
+    public ResponseEntity<Resource> getMedicalRecordFile(@PathVariable(name = "key") String key) throws IOException {
+        return ResponseEntity.ok()
+                .contentType(MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                .cacheControl(CacheControl.noStore())
+                .body(medicalRecordService.getMedicalRecordFile(key));
+    }
+
+    @GetMapping("/{id}/status")
+    public ResponseEntity<MedicalRecordStatusDto> getMedicalRecordStatus(@PathVariable(name = "id") Long id) {
+        return ResponseEntity.ok(medicalRecordService.getMedicalRecordStatus(id));
+    }
 }
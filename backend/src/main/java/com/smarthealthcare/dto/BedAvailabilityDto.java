@@ -0,0 +1,16 @@
+package com.smarthealthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BedAvailabilityDto {
+    private Long hospitalId;
+    private int totalBeds;
+    private int availableBeds;
+}
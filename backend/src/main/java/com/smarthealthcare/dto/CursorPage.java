@@ -0,0 +1,27 @@
+package com.smarthealthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private Long nextCursor; // id to pass as "after" for the next page, null on the last page
+
+    // rows are expected to be fetched with size + 1 so a following page can be detected
+    public static <E, T> CursorPage<T> of(List<E> rows, int size, Function<E, Long> idOf, Function<E, T> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<E> page = hasMore ? rows.subList(0, size) : rows;
+        Long nextCursor = hasMore ? idOf.apply(page.get(page.size() - 1)) : null;
+        return new CursorPage<>(page.stream().map(mapper).collect(Collectors.toList()), nextCursor);
+    }
+}
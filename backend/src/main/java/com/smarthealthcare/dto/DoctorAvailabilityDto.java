@@ -0,0 +1,19 @@
+package com.smarthealthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorAvailabilityDto {
+    private LocalDate date;
+    private List<LocalTime> freeSlots;
+}
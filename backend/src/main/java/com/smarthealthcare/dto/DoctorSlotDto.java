@@ -0,0 +1,22 @@
+package com.smarthealthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorSlotDto {
+    private Long doctorId;
+    private String doctorName;
+    private String specialization;
+    private Long hospitalId;
+    private LocalDate date;
+    private LocalTime time;
+}
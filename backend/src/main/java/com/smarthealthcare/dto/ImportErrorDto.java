@@ -0,0 +1,15 @@
+package com.smarthealthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportErrorDto {
+    private long line; // 1-based line in the uploaded file
+    private String message;
+}
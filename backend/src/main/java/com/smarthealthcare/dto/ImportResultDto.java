@@ -0,0 +1,19 @@
+package com.smarthealthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDto {
+    private long imported;
+    private long failed;
+    private long elapsedMillis;
+    private List<ImportErrorDto> errors; // capped, failed may be larger
+}
@@ -12,6 +12,8 @@ import lombok.Setter;
 public class JwtAuthResponse {
     private String accessToken;
     private String tokenType = "Bearer";
+    private long expiresIn; // seconds until the access token expires
+    private String refreshToken;
     private String role;
     private Long id;
     private String name;
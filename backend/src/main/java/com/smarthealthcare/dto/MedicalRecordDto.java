@@ -1,5 +1,6 @@
 package com.smarthealthcare.dto;
 
+import com.smarthealthcare.entity.MedicalRecordStatus;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -18,4 +19,5 @@ public class MedicalRecordDto {
     private String extractedText;
     private LocalDate uploadDate;
     private String notes;
+    private MedicalRecordStatus status;
 }
@@ -0,0 +1,20 @@
+package com.smarthealthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicalRecordSearchHitDto {
+    private Long recordId;
+    private Long patientId;
+    private LocalDate uploadDate;
+    private float score;
+    private String snippet; // best matching passages, matches wrapped in <b></b>
+}
@@ -0,0 +1,17 @@
+package com.smarthealthcare.dto;
+
+import com.smarthealthcare.entity.MedicalRecordStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicalRecordStatusDto {
+    private Long id;
+    private MedicalRecordStatus status;
+    private String failureReason;
+}
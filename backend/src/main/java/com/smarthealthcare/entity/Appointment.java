@@ -14,7 +14,9 @@ import java.time.LocalTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointments_patient_id", columnList = "patient_id, id"),
+        @Index(name = "idx_appointments_doctor_id", columnList = "doctor_id, id") })
 public class Appointment {
 
     @Id
@@ -1,5 +1,8 @@
 package com.smarthealthcare.entity;
 
+import com.smarthealthcare.service.impl.DoctorCalendarIndexListener;
+import com.smarthealthcare.service.impl.DoctorSearchIndexListener;
+import com.smarthealthcare.service.impl.ReferenceDataCacheListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -11,7 +14,9 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "doctors")
+@Table(name = "doctors", indexes = @Index(name = "idx_doctors_hospital_id", columnList = "hospital_id, id"))
+@EntityListeners({ DoctorCalendarIndexListener.class, DoctorSearchIndexListener.class,
+        ReferenceDataCacheListener.class })
 public class Doctor {
 
     @Id
@@ -1,5 +1,7 @@
 package com.smarthealthcare.entity;
 
+import com.smarthealthcare.service.impl.HospitalGeoIndexListener;
+import com.smarthealthcare.service.impl.ReferenceDataCacheListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -12,6 +14,7 @@ import lombok.Setter;
 @AllArgsConstructor
 @Entity
 @Table(name = "hospitals")
+@EntityListeners({ HospitalGeoIndexListener.class, ReferenceDataCacheListener.class })
 public class Hospital {
 
     @Id
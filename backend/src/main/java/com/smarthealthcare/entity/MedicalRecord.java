@@ -1,5 +1,6 @@
 package com.smarthealthcare.entity;
 
+import com.smarthealthcare.service.impl.MedicalRecordSearchIndexListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -13,7 +14,10 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "medical_records")
+@EntityListeners(MedicalRecordSearchIndexListener.class)
+@Table(name = "medical_records", indexes = {
+        @Index(name = "idx_medical_records_content_hash", columnList = "contentHash"),
+        @Index(name = "idx_medical_records_patient_id", columnList = "patient_id, id") })
 public class MedicalRecord {
 
     @Id
@@ -24,7 +28,7 @@ public class MedicalRecord {
     @JoinColumn(name = "patient_id", nullable = false)
     private User patient;
 
-    @Column(nullable = false)
+    // set once the storage upload finishes
     private String fileUrl;
 
     @Column(columnDefinition = "TEXT")
@@ -35,4 +39,14 @@ public class MedicalRecord {
 
     // Additional notes if needed
     private String notes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MedicalRecordStatus status;
+
+    private String failureReason;
+
+    // SHA-256 of the uploaded file, used to skip storage and OCR for re-uploads
+    @Column(length = 64)
+    private String contentHash;
 }
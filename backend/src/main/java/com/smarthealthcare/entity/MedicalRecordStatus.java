@@ -0,0 +1,7 @@
+package com.smarthealthcare.entity;
+
+public enum MedicalRecordStatus {
+    PENDING,
+    READY,
+    FAILED
+}
@@ -1,5 +1,6 @@
 package com.smarthealthcare.entity;
 
+import com.smarthealthcare.security.UserAuthCacheListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -12,6 +13,7 @@ import lombok.Setter;
 @AllArgsConstructor
 @Entity
 @Table(name = "users")
+@EntityListeners(UserAuthCacheListener.class)
 public class User {
 
     @Id
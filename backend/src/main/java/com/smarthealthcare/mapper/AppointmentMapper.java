@@ -0,0 +1,22 @@
+package com.smarthealthcare.mapper;
+
+import com.smarthealthcare.dto.AppointmentDto;
+import com.smarthealthcare.entity.Appointment;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AppointmentMapper {
+
+    // expects doctor and patient to be loaded, see AppointmentRepository.findWithDoctorAndPatientById
+    public AppointmentDto toDto(Appointment appointment) {
+        return new AppointmentDto(
+                appointment.getId(),
+                appointment.getPatient().getId(),
+                appointment.getDoctor().getId(),
+                appointment.getDoctor().getName(),
+                appointment.getPatient().getName(),
+                appointment.getDate(),
+                appointment.getTime(),
+                appointment.getStatus());
+    }
+}
@@ -0,0 +1,26 @@
+package com.smarthealthcare.mapper;
+
+import com.smarthealthcare.dto.DoctorDto;
+import com.smarthealthcare.entity.Doctor;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DoctorMapper {
+
+    // reading the id of a lazy hospital proxy does not initialise it
+    public DoctorDto toDto(Doctor doctor) {
+        return new DoctorDto(
+                doctor.getId(),
+                doctor.getName(),
+                doctor.getSpecialization(),
+                doctor.getHospital() != null ? doctor.getHospital().getId() : null);
+    }
+
+    // hospital and user are resolved by the caller
+    public Doctor toEntity(DoctorDto doctorDto) {
+        Doctor doctor = new Doctor();
+        doctor.setName(doctorDto.getName());
+        doctor.setSpecialization(doctorDto.getSpecialization());
+        return doctor;
+    }
+}
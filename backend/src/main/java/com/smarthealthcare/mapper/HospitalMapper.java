@@ -0,0 +1,32 @@
+package com.smarthealthcare.mapper;
+
+import com.smarthealthcare.dto.HospitalDto;
+import com.smarthealthcare.entity.Hospital;
+import org.springframework.stereotype.Component;
+
+@Component
+public class HospitalMapper {
+
+    public HospitalDto toDto(Hospital hospital) {
+        return new HospitalDto(
+                hospital.getId(),
+                hospital.getName(),
+                hospital.getLocation(),
+                hospital.getLatitude(),
+                hospital.getLongitude(),
+                hospital.getTotalBeds(),
+                hospital.getAvailableBeds());
+    }
+
+    // the id is left for the database to assign
+    public Hospital toEntity(HospitalDto hospitalDto) {
+        Hospital hospital = new Hospital();
+        hospital.setName(hospitalDto.getName());
+        hospital.setLocation(hospitalDto.getLocation());
+        hospital.setLatitude(hospitalDto.getLatitude());
+        hospital.setLongitude(hospitalDto.getLongitude());
+        hospital.setTotalBeds(hospitalDto.getTotalBeds());
+        hospital.setAvailableBeds(hospitalDto.getAvailableBeds());
+        return hospital;
+    }
+}
@@ -0,0 +1,20 @@
+package com.smarthealthcare.mapper;
+
+import com.smarthealthcare.dto.MedicalRecordDto;
+import com.smarthealthcare.entity.MedicalRecord;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MedicalRecordMapper {
+
+    public MedicalRecordDto toDto(MedicalRecord record) {
+        return new MedicalRecordDto(
+                record.getId(),
+                record.getPatient().getId(),
+                record.getFileUrl(),
+                record.getExtractedText(),
+                record.getUploadDate(),
+                record.getNotes(),
+                record.getStatus());
+    }
+}
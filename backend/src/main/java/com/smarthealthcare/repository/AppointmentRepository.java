@@ -1,11 +1,47 @@
 package com.smarthealthcare.repository;
 
+import com.smarthealthcare.dto.AppointmentDto;
 import com.smarthealthcare.entity.Appointment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
     List<Appointment> findByPatientId(Long patientId);
 
     List<Appointment> findByDoctorId(Long doctorId);
+
+    @EntityGraph(attributePaths = { "doctor", "patient" })
+    Optional<Appointment> findWithDoctorAndPatientById(Long id);
+
+    // constructor projections read the names through joins, one statement per page
+    @Query("select new com.smarthealthcare.dto.AppointmentDto(a.id, p.id, d.id, d.name, p.name, a.date, a.time, a.status) "
+            + "from Appointment a join a.doctor d join a.patient p "
+            + "where p.id = :patientId and a.id > :afterId order by a.id")
+    List<AppointmentDto> findPageByPatientId(@Param("patientId") Long patientId, @Param("afterId") Long afterId,
+            Limit limit);
+
+    @Query("select new com.smarthealthcare.dto.AppointmentDto(a.id, p.id, d.id, d.name, p.name, a.date, a.time, a.status) "
+            + "from Appointment a join a.doctor d join a.patient p "
+            + "where d.id = :doctorId and a.id > :afterId order by a.id")
+    List<AppointmentDto> findPageByDoctorId(@Param("doctorId") Long doctorId, @Param("afterId") Long afterId,
+            Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.smarthealthcare.dto.AppointmentDto(a.id, p.id, d.id, d.name, p.name, a.date, a.time, a.status) "
+            + "from Appointment a join a.doctor d join a.patient p where p.id = :patientId order by a.id")
+    Stream<AppointmentDto> streamByPatientId(@Param("patientId") Long patientId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.smarthealthcare.dto.AppointmentDto(a.id, p.id, d.id, d.name, p.name, a.date, a.time, a.status) "
+            + "from Appointment a join a.doctor d join a.patient p where d.id = :doctorId order by a.id")
+    Stream<AppointmentDto> streamByDoctorId(@Param("doctorId") Long doctorId);
 }
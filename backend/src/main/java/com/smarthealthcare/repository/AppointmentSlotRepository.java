@@ -0,0 +1,22 @@
+package com.smarthealthcare.repository;
+
+import com.smarthealthcare.entity.AppointmentSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public interface AppointmentSlotRepository extends JpaRepository<AppointmentSlot, Long> {
+    @Query("select s.doctor.id as doctorId, s.date as date, s.time as time from AppointmentSlot s")
+    List<BookedSlot> findAllBooked();
+
+    boolean existsByDoctorIdAndDateAndTime(Long doctorId, LocalDate date, LocalTime time);
+
+    @Modifying
+    @Query("delete from AppointmentSlot s where s.appointment.id = :appointmentId")
+    int deleteByAppointmentId(@Param("appointmentId") Long appointmentId);
+}
@@ -0,0 +1,12 @@
+package com.smarthealthcare.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public interface BookedSlot {
+    Long getDoctorId();
+
+    LocalDate getDate();
+
+    LocalTime getTime();
+}
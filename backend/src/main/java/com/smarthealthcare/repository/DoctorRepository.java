@@ -1,11 +1,30 @@
 package com.smarthealthcare.repository;
 
+import com.smarthealthcare.dto.DoctorDto;
 import com.smarthealthcare.entity.Doctor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     List<Doctor> findByHospitalId(Long hospitalId);
 
-    List<Doctor> findBySpecializationContaining(String specialization);
+
+    @Query("select d.id as id, d.name as name, d.specialization as specialization, d.hospital.id as hospitalId "
+            + "from Doctor d")
+    List<DoctorSummary> findAllSummaries();
+
+    List<Doctor> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    List<Doctor> findByHospitalIdAndIdGreaterThanOrderByIdAsc(Long hospitalId, Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.smarthealthcare.dto.DoctorDto(d.id, d.name, d.specialization, d.hospital.id) "
+            + "from Doctor d order by d.id")
+    Stream<DoctorDto> streamAll();
 }
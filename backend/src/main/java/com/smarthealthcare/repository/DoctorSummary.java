@@ -0,0 +1,11 @@
+package com.smarthealthcare.repository;
+
+public interface DoctorSummary {
+    Long getId();
+
+    String getName();
+
+    String getSpecialization();
+
+    Long getHospitalId();
+}
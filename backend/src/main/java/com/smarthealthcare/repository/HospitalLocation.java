@@ -0,0 +1,11 @@
+package com.smarthealthcare.repository;
+
+public interface HospitalLocation {
+    Long getId();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    int getAvailableBeds();
+}
@@ -1,7 +1,36 @@
 package com.smarthealthcare.repository;
 
+import com.smarthealthcare.dto.HospitalDto;
 import com.smarthealthcare.entity.Hospital;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface HospitalRepository extends JpaRepository<Hospital, Long> {
+    List<HospitalLocation> findAllProjectedBy();
+
+    List<Hospital> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // both updates only apply when the result stays within 0..totalBeds
+    @Modifying
+    @Query("update Hospital h set h.availableBeds = h.availableBeds - :count "
+            + "where h.id = :id and h.availableBeds >= :count")
+    int admitPatients(@Param("id") Long id, @Param("count") int count);
+
+    @Modifying
+    @Query("update Hospital h set h.availableBeds = h.availableBeds + :count "
+            + "where h.id = :id and h.availableBeds + :count <= h.totalBeds")
+    int dischargePatients(@Param("id") Long id, @Param("count") int count);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.smarthealthcare.dto.HospitalDto(h.id, h.name, h.location, h.latitude, h.longitude, "
+            + "h.totalBeds, h.availableBeds) from Hospital h order by h.id")
+    Stream<HospitalDto> streamAll();
 }
@@ -1,9 +1,50 @@
 package com.smarthealthcare.repository;
 
+import com.smarthealthcare.dto.MedicalRecordDto;
 import com.smarthealthcare.entity.MedicalRecord;
+import com.smarthealthcare.entity.MedicalRecordStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface MedicalRecordRepository extends JpaRepository<MedicalRecord, Long> {
     List<MedicalRecord> findByPatientId(Long patientId);
+
+    List<MedicalRecord> findByPatientIdAndIdGreaterThanOrderByIdAsc(Long patientId, Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.smarthealthcare.dto.MedicalRecordDto(m.id, m.patient.id, m.fileUrl, m.extractedText, "
+            + "m.uploadDate, m.notes, m.status) from MedicalRecord m where m.patient.id = :patientId order by m.id")
+    Stream<MedicalRecordDto> streamByPatientId(@Param("patientId") Long patientId);
+
+    long countByExtractedTextIsNotNull();
+
+    // an exact suffix match; a LIKE would treat '_' in the key as a wildcard
+    @Query("select count(m) > 0 from MedicalRecord m where m.patient.id = :patientId and m.fileUrl is not null "
+            + "and substring(m.fileUrl, length(m.fileUrl) - length(:suffix) + 1) = :suffix")
+    boolean existsByPatientIdAndFileUrlEndingWith(@Param("patientId") Long patientId, @Param("suffix") String suffix);
+
+    Optional<MedicalRecord> findFirstByContentHashAndStatus(String contentHash, MedicalRecordStatus status);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select m.id as id, m.patient.id as patientId, m.uploadDate as uploadDate, "
+            + "m.extractedText as extractedText from MedicalRecord m where m.extractedText is not null")
+    Stream<MedicalRecordText> streamSearchable();
+
+    // records the ingestion pipeline accepted (hashed, not yet stored) but never finished
+    @Transactional
+    @Modifying
+    @Query("update MedicalRecord m set m.status = com.smarthealthcare.entity.MedicalRecordStatus.FAILED, "
+            + "m.failureReason = :reason where m.status = com.smarthealthcare.entity.MedicalRecordStatus.PENDING "
+            + "and m.contentHash is not null and m.fileUrl is null")
+    int failUnfinishedIngestions(@Param("reason") String reason);
 }
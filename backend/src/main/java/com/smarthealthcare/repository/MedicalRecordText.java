@@ -0,0 +1,13 @@
+package com.smarthealthcare.repository;
+
+import java.time.LocalDate;
+
+public interface MedicalRecordText {
+    Long getId();
+
+    Long getPatientId();
+
+    LocalDate getUploadDate();
+
+    String getExtractedText();
+}
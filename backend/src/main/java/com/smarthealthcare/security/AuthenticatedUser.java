@@ -0,0 +1,92 @@
+package com.smarthealthcare.security;
+
+import com.smarthealthcare.entity.User;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Principal for a signed-in user. It carries the id, name and role, so
+ * login and the services can read them without loading the user again. The
+ * password hash is only present until authentication has checked it.
+ */
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+
+    private final Long id;
+    private final String name;
+    private final String email;
+    private final String role;
+    private final Set<GrantedAuthority> authorities;
+    private String password;
+
+    public AuthenticatedUser(Long id, String name, String email, String role, String password) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.role = role;
+        this.authorities = Set.of(new SimpleGrantedAuthority(role));
+        this.password = password;
+    }
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getName(), user.getEmail(),
+                "ROLE_" + user.getRole().name(), user.getPassword());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // the granted authority, e.g. ROLE_PATIENT
+    public String getRole() {
+        return role;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+}
@@ -0,0 +1,106 @@
+package com.smarthealthcare.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache from a verified bearer token to the principal it resolves to.
+ * Entries expire with the token itself and remember the token family they
+ * belong to, so ending a login drops every access token it issued. When a user changes or is removed,
+ * {@link #invalidateUser(String)} drops their cached entries and marks every
+ * token issued before that moment as stale, so the role claim it carries is
+ * no longer trusted.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    private final int maxSize;
+    private final long tokenLifetimeMillis;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Long> staleBefore = new ConcurrentHashMap<>();
+
+    public JwtAuthenticationCache(@Value("${app.jwt-cache.max-size:10000}") int maxSize,
+            @Value("${app.jwt-expiration-milliseconds}") long tokenLifetimeMillis) {
+        this.maxSize = maxSize;
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+    }
+
+    public Entry get(String token) {
+        Entry entry = entries.get(token);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(token, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    public void put(String token, UserDetails userDetails, String familyId, long expiresAt) {
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(token, new Entry(userDetails, familyId, expiresAt));
+    }
+
+    /**
+     * Whether a token for {@code username} issued at {@code issuedAt} predates
+     * the last change to that user.
+     */
+    public boolean isStale(String username, long issuedAt) {
+        Long changedAt = staleBefore.get(username);
+        return changedAt != null && issuedAt <= changedAt;
+    }
+
+    public void invalidateUser(String username) {
+        long now = System.currentTimeMillis();
+        staleBefore.put(username, now);
+        entries.values().removeIf(entry -> entry.userDetails().getUsername().equals(username));
+        // markers only matter while a token issued before them can still be valid
+        staleBefore.values().removeIf(changedAt -> changedAt + tokenLifetimeMillis < now);
+    }
+
+    public void invalidateFamily(String familyId) {
+        if (familyId != null) {
+            entries.values().removeIf(entry -> familyId.equals(entry.familyId()));
+        }
+    }
+
+    public void invalidateToken(String token) {
+        entries.remove(token);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        if (entries.size() < maxSize) {
+            return;
+        }
+
+        // still full of live tokens, drop an arbitrary tenth to make room
+        int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> it = entries.keySet().iterator();
+        while (toRemove-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    public record Entry(UserDetails userDetails, String familyId, long expiresAt) {
+    }
+}
@@ -1,5 +1,9 @@
 package com.smarthealthcare.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,22 +12,39 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
+    private final JwtAuthenticationCache jwtAuthenticationCache;
+    private final TokenRevocationList tokenRevocationList;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService) {
+    private final Counter cachedTokens;
+    private final Timer acceptedTimer;
+    private final Timer rejectedTimer;
+
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService,
+            JwtAuthenticationCache jwtAuthenticationCache, TokenRevocationList tokenRevocationList,
+            MeterRegistry meterRegistry) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.jwtAuthenticationCache = jwtAuthenticationCache;
+        this.tokenRevocationList = tokenRevocationList;
+        this.cachedTokens = Counter.builder("healthcare.auth.jwt.cached")
+                .description("Bearer tokens resolved from the authentication cache")
+                .register(meterRegistry);
+        this.acceptedTimer = validationTimer(meterRegistry, "accepted");
+        this.rejectedTimer = validationTimer(meterRegistry, "rejected");
     }
 
     @Override
@@ -34,26 +55,85 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // get JWT token from http request
         String token = getTokenFromRequest(request);
 
-        // validate token
-        if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
+        if (StringUtils.hasText(token)) {
+            UserDetails userDetails = resolveUser(token);
 
-            // get username from token
-            String username = jwtTokenProvider.getUsername(token);
+            if (userDetails != null) {
+                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities());
 
-            // load the user associated with token
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-            UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                    userDetails,
-                    null,
-                    userDetails.getAuthorities());
+                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            }
+        }
 
-            authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        filterChain.doFilter(request, response);
+    }
 
-            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+    private UserDetails resolveUser(String token) {
+        JwtAuthenticationCache.Entry cached = jwtAuthenticationCache.get(token);
+        if (cached != null) {
+            // logout evicts the family, but a verification racing it can cache the token again afterwards
+            if (tokenRevocationList.isFamilyRevoked(cached.familyId())) {
+                jwtAuthenticationCache.invalidateToken(token);
+                return null;
+            }
+            cachedTokens.increment();
+            return cached.userDetails();
         }
 
-        filterChain.doFilter(request, response);
+        long start = System.nanoTime();
+        UserDetails userDetails = verify(token);
+        (userDetails != null ? acceptedTimer : rejectedTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return userDetails;
+    }
+
+    private UserDetails verify(String token) {
+        // validate token, parsing and verifying it only once
+        Claims claims = jwtTokenProvider.parseClaims(token);
+        if (claims == null || JwtTokenProvider.REFRESH_TYPE.equals(claims.get(JwtTokenProvider.TYPE_CLAIM))) {
+            return null;
+        }
+        // in-memory only; cache hits above check the family again
+        String familyId = claims.get(JwtTokenProvider.FAMILY_CLAIM, String.class);
+        if ((claims.getId() != null && tokenRevocationList.isRevoked(claims.getId()))
+                || tokenRevocationList.isFamilyRevoked(familyId)) {
+            return null;
+        }
+
+        String username = claims.getSubject();
+        String role = claims.get(JwtTokenProvider.ROLE_CLAIM, String.class);
+        Long userId = claims.get(JwtTokenProvider.USER_ID_CLAIM, Long.class);
+        long issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+
+        UserDetails userDetails;
+        if (role != null && userId != null && !jwtAuthenticationCache.isStale(username, issuedAt)) {
+            userDetails = new AuthenticatedUser(userId, claims.get(JwtTokenProvider.NAME_CLAIM, String.class),
+                    username, role, null);
+        } else {
+            // older tokens without these claims, or issued before the user last changed, go back to the database
+            try {
+                userDetails = userDetailsService.loadUserByUsername(username);
+            } catch (UsernameNotFoundException ex) {
+                return null;
+            }
+            if (userDetails instanceof AuthenticatedUser authenticatedUser) {
+                authenticatedUser.eraseCredentials();
+            }
+        }
+
+        jwtAuthenticationCache.put(token, userDetails, familyId, claims.getExpiration().getTime());
+        return userDetails;
+    }
+
+    private static Timer validationTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("healthcare.auth.jwt.validation")
+                .description("Verifying a bearer token that was not in the authentication cache")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
     private String getTokenFromRequest(HttpServletRequest request) {
@@ -3,68 +3,128 @@ package com.smarthealthcare.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
 
+    public static final String ROLE_CLAIM = "role";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String NAME_CLAIM = "name";
+    public static final String FAMILY_CLAIM = "fam";
+    public static final String TYPE_CLAIM = "typ";
+    public static final String REFRESH_TYPE = "refresh";
+
     @Value("${app.jwt-secret}")
     private String jwtSecret;
 
     @Value("${app.jwt-expiration-milliseconds}")
     private long jwtExpirationDate;
 
-    // generate JWT token
-    public String generateToken(Authentication authentication) {
-        String username = authentication.getName();
+    @Value("${app.jwt-refresh-expiration-milliseconds}")
+    private long refreshExpirationDate;
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
+
+    private final MeterRegistry meterRegistry;
+
+    // decoding the secret and building the parser are done once, both are thread-safe
+    private Key key;
+    private JwtParser parser;
+
+    public JwtTokenProvider(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
+    @PostConstruct
+    void init() {
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+    }
+
+    // generate JWT token; id, name and role ride along so requests need no user lookup
+    public String generateToken(AuthenticatedUser user, String familyId) {
         Date currentDate = new Date();
         Date expireDate = new Date(currentDate.getTime() + jwtExpirationDate);
 
         return Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(new Date())
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getUsername())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(NAME_CLAIM, user.getName())
+                .claim(ROLE_CLAIM, user.getRole())
+                .claim(FAMILY_CLAIM, familyId)
+                .setIssuedAt(currentDate)
                 .setExpiration(expireDate)
-                .signWith(key())
+                .signWith(key)
                 .compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    // long-lived, single-use token for getting a new pair; the family ties it to the login it came from
+    public String generateRefreshToken(AuthenticatedUser user, String familyId) {
+        Date currentDate = new Date();
+        Date expireDate = new Date(currentDate.getTime() + refreshExpirationDate);
+
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getUsername())
+                .claim(TYPE_CLAIM, REFRESH_TYPE)
+                .claim(FAMILY_CLAIM, familyId)
+                .setIssuedAt(currentDate)
+                .setExpiration(expireDate)
+                .signWith(key)
+                .compact();
+    }
+
+    public long getExpirationMillis() {
+        return jwtExpirationDate;
+    }
+
+    public long getRefreshExpirationMillis() {
+        return refreshExpirationDate;
     }
 
     // get username from Jwt token
     public String getUsername(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
 
     // validate Jwt token
     public boolean validateToken(String token) {
+        return parseClaims(token) != null;
+    }
+
+    // verify the token once and hand back its claims, or null when it is not valid
+    public Claims parseClaims(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (MalformedJwtException ex) {
-            System.err.println("Invalid JWT token");
+            return parser.parseClaimsJws(token).getBody();
+        } catch (SecurityException | MalformedJwtException ex) {
+            rejected("invalid", ex);
         } catch (ExpiredJwtException ex) {
-            System.err.println("Expired JWT token");
+            rejected("expired", ex);
         } catch (UnsupportedJwtException ex) {
-            System.err.println("Unsupported JWT token");
+            rejected("unsupported", ex);
         } catch (IllegalArgumentException ex) {
-            System.err.println("JWT claims string is empty.");
+            rejected("empty", ex);
         }
-        return false;
+        return null;
+    }
+
+    // bad tokens are the client's problem, so they are counted rather than logged loudly
+    private void rejected(String reason, Exception ex) {
+        meterRegistry.counter("healthcare.auth.jwt.rejected", "reason", reason).increment();
+        logger.debug("Rejected {} JWT token: {}", reason, ex.getMessage());
     }
 }
@@ -0,0 +1,164 @@
+package com.smarthealthcare.security;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory set of revoked token ids (and token families), each kept only
+ * until the tokens it covers would have expired anyway. Lookups go through a
+ * Bloom filter first, so the common case of a token that was never revoked
+ * is answered from a few bit reads; only filter hits consult the exact map.
+ * Revocations live in this process only and are lost on restart.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final String FAMILY_PREFIX = "family:";
+
+    private final int expectedEntries;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    // set while prune() builds a replacement filter; lookups then go to the exact map
+    private volatile boolean rebuilding;
+
+    private final ScheduledExecutorService pruner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "token-revocation-prune");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TokenRevocationList(@Value("${app.jwt-revocation.expected-entries:100000}") int expectedEntries,
+            @Value("${app.jwt-revocation.prune-interval-seconds:60}") long pruneIntervalSeconds) {
+        this.expectedEntries = expectedEntries;
+        this.filter = new BloomFilter(expectedEntries);
+        pruner.scheduleWithFixedDelay(this::prune, pruneIntervalSeconds, pruneIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Revokes one token id until {@code expiresAt}. Returns false when it was
+     * already revoked, which callers rotating tokens treat as reuse.
+     */
+    public boolean revoke(String tokenId, long expiresAt) {
+        return add(tokenId, expiresAt);
+    }
+
+    public void revokeFamily(String familyId, long expiresAt) {
+        add(FAMILY_PREFIX + familyId, expiresAt);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return contains(tokenId);
+    }
+
+    public boolean isFamilyRevoked(String familyId) {
+        return familyId != null && contains(FAMILY_PREFIX + familyId);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private boolean add(String key, long expiresAt) {
+        // the exact map first, so a key is never in the filter without being in the map
+        boolean added = revoked.putIfAbsent(key, expiresAt) == null;
+        if (!added) {
+            revoked.merge(key, expiresAt, Math::max);
+        }
+        filter.add(key);
+        return added;
+    }
+
+    private boolean contains(String key) {
+        if (!rebuilding && !filter.mightContain(key)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(key);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    // Bloom filters cannot forget, so expired keys are dropped by building a fresh one
+    private void prune() {
+        long now = System.currentTimeMillis();
+        if (!revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+            return;
+        }
+        rebuilding = true;
+        try {
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2));
+            revoked.keySet().forEach(rebuilt::add);
+            filter = rebuilt;
+            // a concurrent add may have put its key in the map but its bits in the old filter
+            revoked.keySet().forEach(rebuilt::add);
+        } finally {
+            rebuilding = false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pruner.shutdown();
+    }
+
+    /**
+     * Bloom filter sized for roughly a 1% false-positive rate at the
+     * expected number of entries, using double hashing over a 64-bit FNV-1a.
+     */
+    private static final class BloomFilter {
+        private static final int HASHES = 7;
+
+        private final AtomicLongArray words;
+        private final long bits;
+
+        private BloomFilter(int expectedEntries) {
+            long wordCount = Math.max(1, ((long) expectedEntries * 10 + 63) / 64);
+            this.words = new AtomicLongArray((int) wordCount);
+            this.bits = wordCount * 64;
+        }
+
+        private void add(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= HASHES; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        private boolean mightContain(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= HASHES; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
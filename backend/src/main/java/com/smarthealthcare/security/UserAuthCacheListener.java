@@ -0,0 +1,26 @@
+package com.smarthealthcare.security;
+
+import com.smarthealthcare.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidates cached authentications when a user's row changes (role,
+ * password) or the user is deleted.
+ */
+@Component
+public class UserAuthCacheListener {
+
+    private final JwtAuthenticationCache jwtAuthenticationCache;
+
+    public UserAuthCacheListener(JwtAuthenticationCache jwtAuthenticationCache) {
+        this.jwtAuthenticationCache = jwtAuthenticationCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        jwtAuthenticationCache.invalidateUser(user.getEmail());
+    }
+}
@@ -1,16 +1,21 @@
 package com.smarthealthcare.service;
 
 import com.smarthealthcare.dto.AppointmentDto;
-import java.util.List;
+import com.smarthealthcare.dto.CursorPage;
+import java.util.function.Consumer;
 
 public interface AppointmentService {
     AppointmentDto bookAppointment(AppointmentDto appointmentDto);
 
     AppointmentDto getAppointmentById(Long id);
 
-    List<AppointmentDto> getAppointmentsByPatient(Long patientId);
+    CursorPage<AppointmentDto> getAppointmentsByPatient(Long patientId, Long after, int size);
 
-    List<AppointmentDto> getAppointmentsByDoctor(Long doctorId);
+    CursorPage<AppointmentDto> getAppointmentsByDoctor(Long doctorId, Long after, int size);
+
+    void streamAppointmentsByPatient(Long patientId, Consumer<AppointmentDto> consumer);
+
+    void streamAppointmentsByDoctor(Long doctorId, Consumer<AppointmentDto> consumer);
 
     AppointmentDto cancelAppointment(Long id);
     // Add logic to check slot availability later
@@ -1,10 +1,17 @@
 package com.smarthealthcare.service;
 
+import com.smarthealthcare.dto.JwtAuthResponse;
 import com.smarthealthcare.dto.LoginDto;
 import com.smarthealthcare.dto.RegisterDto;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface AuthService {
-    String login(LoginDto loginDto);
+    CompletableFuture<JwtAuthResponse> login(LoginDto loginDto);
+
+    JwtAuthResponse refresh(String refreshToken);
+
+    void logout(String accessToken, String refreshToken);
 
-    String register(RegisterDto registerDto);
+    CompletableFuture<String> register(RegisterDto registerDto);
 }
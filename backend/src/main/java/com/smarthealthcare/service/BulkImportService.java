@@ -0,0 +1,14 @@
+package com.smarthealthcare.service;
+
+import com.smarthealthcare.dto.ImportResultDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface BulkImportService {
+    ImportResultDto importHospitals(InputStream content, String contentType) throws IOException;
+
+    ImportResultDto importDoctors(InputStream content, String contentType) throws IOException;
+
+    ImportResultDto importUsers(InputStream content, String contentType) throws IOException;
+}
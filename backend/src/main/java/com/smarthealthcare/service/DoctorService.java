@@ -1,18 +1,31 @@
 package com.smarthealthcare.service;
 
+import com.smarthealthcare.dto.CursorPage;
+import com.smarthealthcare.dto.DoctorAvailabilityDto;
 import com.smarthealthcare.dto.DoctorDto;
+import com.smarthealthcare.dto.DoctorSlotDto;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface DoctorService {
     DoctorDto createDoctor(DoctorDto doctorDto);
 
     DoctorDto getDoctorById(Long id);
 
-    List<DoctorDto> getAllDoctors();
+    CursorPage<DoctorDto> getAllDoctors(Long after, int size);
 
-    List<DoctorDto> getDoctorsByHospital(Long hospitalId);
+    void streamAllDoctors(Consumer<DoctorDto> consumer);
+
+    CursorPage<DoctorDto> getDoctorsByHospital(Long hospitalId, Long after, int size);
 
     DoctorDto updateDoctor(Long id, DoctorDto doctorDto);
 
     void deleteDoctor(Long id);
+
+    List<DoctorAvailabilityDto> getAvailability(Long doctorId, LocalDate from, LocalDate to);
+
+    DoctorSlotDto findFirstAvailable(String specialization, Long hospitalId, LocalDate from);
+
+    List<DoctorDto> searchDoctors(String query, Long hospitalId, Integer limit);
 }
@@ -1,20 +1,30 @@
 package com.smarthealthcare.service;
 
+import com.smarthealthcare.dto.CursorPage;
 import com.smarthealthcare.dto.HospitalDto;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface HospitalService {
     HospitalDto createHospital(HospitalDto hospitalDto);
 
     HospitalDto getHospitalById(Long id);
 
-    List<HospitalDto> getAllHospitals();
+    CursorPage<HospitalDto> getAllHospitals(Long after, int size);
+
+    void streamAllHospitals(Consumer<HospitalDto> consumer);
 
     HospitalDto updateHospital(Long id, HospitalDto hospitalDto);
 
     void deleteHospital(Long id);
 
-    List<HospitalDto> findNearestHospitals(double lat, double lon, double radius);
+    List<HospitalDto> findNearestHospitals(double lat, double lon, double radius, Integer limit);
 
     List<HospitalDto> createHospitals(List<HospitalDto> hospitalDtos);
+
+    HospitalDto admitPatients(Long id, int count);
+
+    HospitalDto dischargePatients(Long id, int count);
+
+    List<HospitalDto> findNearestWithFreeBeds(double lat, double lon, double radius, int minBeds, Integer limit);
 }
@@ -1,14 +1,29 @@
 package com.smarthealthcare.service;
 
+import com.smarthealthcare.dto.CursorPage;
 import com.smarthealthcare.dto.MedicalRecordDto;
+import com.smarthealthcare.dto.MedicalRecordSearchHitDto;
+import com.smarthealthcare.dto.MedicalRecordStatusDto;
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MedicalRecordService {
     MedicalRecordDto uploadMedicalRecord(Long patientId, MultipartFile file, String notes) throws IOException;
 
-    List<MedicalRecordDto> getMedicalRecordsByPatient(Long patientId);
+    CursorPage<MedicalRecordDto> getMedicalRecordsByPatient(Long patientId, Long after, int size);
+
+    void streamMedicalRecordsByPatient(Long patientId, Consumer<MedicalRecordDto> consumer);
 
     MedicalRecordDto getMedicalRecordById(Long id);
+
+    MedicalRecordStatusDto getMedicalRecordStatus(Long id);
+
+    Resource getMedicalRecordFile(String key) throws IOException;
+
+    List<MedicalRecordSearchHitDto> searchPatientRecords(Long patientId, String query, Integer limit);
+
+    List<MedicalRecordSearchHitDto> searchAllRecords(String query, Integer limit);
 }
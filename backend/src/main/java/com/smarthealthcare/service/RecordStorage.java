@@ -0,0 +1,25 @@
+package com.smarthealthcare.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Where uploaded medical record files are kept. The backend is chosen with
+ * {@code app.storage.type}: cloudinary (default), local or memory.
+ */
+public interface RecordStorage {
+
+    /**
+     * Stores the content of {@code file} under {@code key} and returns the URL
+     * clients use to fetch it. Storing the same key again is harmless.
+     */
+    String store(String key, Path file) throws IOException;
+
+    /**
+     * Content stored under {@code key} when this backend serves files itself,
+     * or null when clients fetch them from the URL returned by {@link #store}.
+     */
+    Resource load(String key) throws IOException;
+}
@@ -1,37 +1,78 @@
 package com.smarthealthcare.service.impl;
 
 import com.smarthealthcare.dto.AppointmentDto;
+import com.smarthealthcare.dto.CursorPage;
 import com.smarthealthcare.entity.Appointment;
+import com.smarthealthcare.entity.AppointmentSlot;
 import com.smarthealthcare.entity.AppointmentStatus;
 import com.smarthealthcare.entity.Doctor;
 import com.smarthealthcare.entity.User;
+import com.smarthealthcare.exception.APIException;
 import com.smarthealthcare.exception.ResourceNotFoundException;
+import com.smarthealthcare.mapper.AppointmentMapper;
 import com.smarthealthcare.repository.AppointmentRepository;
+import com.smarthealthcare.repository.AppointmentSlotRepository;
 import com.smarthealthcare.repository.DoctorRepository;
 import com.smarthealthcare.repository.UserRepository;
 import com.smarthealthcare.service.AppointmentService;
-import org.modelmapper.ModelMapper;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
+@Timed("healthcare.service")
 public class AppointmentServiceImpl implements AppointmentService {
 
     private AppointmentRepository appointmentRepository;
     private DoctorRepository doctorRepository;
     private UserRepository userRepository;
-    private ModelMapper modelMapper;
+    private AppointmentSlotRepository appointmentSlotRepository;
+    private AppointmentSlotLocks appointmentSlotLocks;
+    private DoctorCalendarIndex doctorCalendarIndex;
+    private ChangeEventBroadcaster changeEventBroadcaster;
+    private TransactionTemplate transactionTemplate;
+    private AppointmentMapper appointmentMapper;
+
+    private static final String SLOT_KEY = "uk_appointment_slots_doctor_date_time";
+
+    @Value("${app.booking.slot-minutes:30}")
+    private int slotMinutes;
 
     public AppointmentServiceImpl(AppointmentRepository appointmentRepository,
             DoctorRepository doctorRepository,
             UserRepository userRepository,
-            ModelMapper modelMapper) {
+            AppointmentSlotRepository appointmentSlotRepository,
+            AppointmentSlotLocks appointmentSlotLocks,
+            DoctorCalendarIndex doctorCalendarIndex,
+            ChangeEventBroadcaster changeEventBroadcaster,
+            TransactionTemplate transactionTemplate,
+            AppointmentMapper appointmentMapper) {
         this.appointmentRepository = appointmentRepository;
         this.doctorRepository = doctorRepository;
         this.userRepository = userRepository;
-        this.modelMapper = modelMapper;
+        this.appointmentSlotRepository = appointmentSlotRepository;
+        this.appointmentSlotLocks = appointmentSlotLocks;
+        this.doctorCalendarIndex = doctorCalendarIndex;
+        this.changeEventBroadcaster = changeEventBroadcaster;
+        this.transactionTemplate = transactionTemplate;
+        this.appointmentMapper = appointmentMapper;
     }
 
     @Override
@@ -42,53 +83,141 @@ public class AppointmentServiceImpl implements AppointmentService {
         User patient = userRepository.findById(appointmentDto.getPatientId())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", appointmentDto.getPatientId()));
 
-        Appointment appointment = new Appointment();
-        appointment.setDoctor(doctor);
-        appointment.setPatient(patient);
-        appointment.setDate(appointmentDto.getDate());
-        appointment.setTime(appointmentDto.getTime());
-        appointment.setStatus(AppointmentStatus.BOOKED);
-
-        Appointment savedAppointment = appointmentRepository.save(appointment);
-        return mapToDto(savedAppointment);
+        LocalDate date = appointmentDto.getDate();
+        LocalTime time = appointmentDto.getTime();
+        if (date == null || time == null) {
+            throw new APIException(HttpStatus.BAD_REQUEST, "Appointment date and time are required.");
+        }
+        if ((time.toSecondOfDay() % (slotMinutes * 60)) != 0) {
+            throw new APIException(HttpStatus.BAD_REQUEST,
+                    "Appointment time must start on a " + slotMinutes + " minute slot.");
+        }
+
+        // same doctor and day serialise here; the unique slot key covers other instances
+        ReentrantLock lock = appointmentSlotLocks.lockFor(doctor.getId(), date);
+        lock.lock();
+        try {
+            AppointmentDto booked = transactionTemplate.execute(status -> {
+                if (appointmentSlotRepository.existsByDoctorIdAndDateAndTime(doctor.getId(), date, time)) {
+                    throw slotTaken();
+                }
+
+                Appointment appointment = new Appointment();
+                appointment.setDoctor(doctor);
+                appointment.setPatient(patient);
+                appointment.setDate(date);
+                appointment.setTime(time);
+                appointment.setStatus(AppointmentStatus.BOOKED);
+                Appointment savedAppointment = appointmentRepository.save(appointment);
+
+                appointmentSlotRepository.saveAndFlush(
+                        new AppointmentSlot(null, doctor, date, time, savedAppointment));
+
+                return appointmentMapper.toDto(savedAppointment);
+            });
+            doctorCalendarIndex.book(doctor.getId(), date, time);
+            publishAppointmentChange(booked);
+            return booked;
+        } catch (DataIntegrityViolationException e) {
+            if (violatesSlotKey(e)) {
+                throw slotTaken();
+            }
+            throw e;
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public AppointmentDto getAppointmentById(Long id) {
-        Appointment appointment = appointmentRepository.findById(id)
+        Appointment appointment = appointmentRepository.findWithDoctorAndPatientById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment", "id", id));
-        return mapToDto(appointment);
+        return appointmentMapper.toDto(appointment);
     }
 
     @Override
-    public List<AppointmentDto> getAppointmentsByPatient(Long patientId) {
-        List<Appointment> appointments = appointmentRepository.findByPatientId(patientId);
-        return appointments.stream().map(this::mapToDto).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentDto> getAppointmentsByPatient(Long patientId, Long after, int size) {
+        List<AppointmentDto> appointments = appointmentRepository.findPageByPatientId(patientId,
+                after == null ? 0L : after, Limit.of(size + 1));
+        return CursorPage.of(appointments, size, AppointmentDto::getId, Function.identity());
     }
 
     @Override
-    public List<AppointmentDto> getAppointmentsByDoctor(Long doctorId) {
-        List<Appointment> appointments = appointmentRepository.findByDoctorId(doctorId);
-        return appointments.stream().map(this::mapToDto).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentDto> getAppointmentsByDoctor(Long doctorId, Long after, int size) {
+        List<AppointmentDto> appointments = appointmentRepository.findPageByDoctorId(doctorId,
+                after == null ? 0L : after, Limit.of(size + 1));
+        return CursorPage.of(appointments, size, AppointmentDto::getId, Function.identity());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public void streamAppointmentsByPatient(Long patientId, Consumer<AppointmentDto> consumer) {
+        try (Stream<AppointmentDto> appointments = appointmentRepository.streamByPatientId(patientId)) {
+            appointments.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAppointmentsByDoctor(Long doctorId, Consumer<AppointmentDto> consumer) {
+        try (Stream<AppointmentDto> appointments = appointmentRepository.streamByDoctorId(doctorId)) {
+            appointments.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional
     public AppointmentDto cancelAppointment(Long id) {
-        Appointment appointment = appointmentRepository.findById(id)
+        Appointment appointment = appointmentRepository.findWithDoctorAndPatientById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment", "id", id));
 
+        boolean wasBooked = appointment.getStatus() == AppointmentStatus.BOOKED;
+        if (wasBooked) {
+            // frees the slot for the next booking as soon as this commits
+            appointmentSlotRepository.deleteByAppointmentId(appointment.getId());
+        }
+
         appointment.setStatus(AppointmentStatus.CANCELLED);
         Appointment updatedAppointment = appointmentRepository.save(appointment);
+        AppointmentDto cancelled = appointmentMapper.toDto(updatedAppointment);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (wasBooked) {
+                    doctorCalendarIndex.release(cancelled.getDoctorId(), cancelled.getDate(), cancelled.getTime());
+                }
+                publishAppointmentChange(cancelled);
+            }
+        });
+
+        return cancelled;
+    }
+
+    private void publishAppointmentChange(AppointmentDto appointment) {
+        changeEventBroadcaster.publish(ChangeEventBroadcaster.doctorTopic(appointment.getDoctorId()),
+                "appointment", appointment);
+        changeEventBroadcaster.publish(ChangeEventBroadcaster.patientTopic(appointment.getPatientId()),
+                "appointment", appointment);
+    }
 
-        return mapToDto(updatedAppointment);
+    // only the (doctor, date, time) key means someone else got the slot first
+    private static boolean violatesSlotKey(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String detail = cause instanceof ConstraintViolationException violation
+                    ? violation.getConstraintName()
+                    : cause.getMessage();
+            if (detail != null && detail.toLowerCase(Locale.ROOT).contains(SLOT_KEY)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private AppointmentDto mapToDto(Appointment appointment) {
-        AppointmentDto appointmentDto = modelMapper.map(appointment, AppointmentDto.class);
-        appointmentDto.setDoctorId(appointment.getDoctor().getId());
-        appointmentDto.setPatientId(appointment.getPatient().getId());
-        appointmentDto.setDoctorName(appointment.getDoctor().getName());
-        appointmentDto.setPatientName(appointment.getPatient().getName());
-        return appointmentDto;
+    private APIException slotTaken() {
+        return new APIException(HttpStatus.CONFLICT, "This appointment slot is already booked.");
     }
 }
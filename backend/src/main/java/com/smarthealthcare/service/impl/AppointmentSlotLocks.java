@@ -0,0 +1,32 @@
+package com.smarthealthcare.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks keyed by (doctor, day). Bookings for the same doctor and day
+ * queue behind one another inside this instance; everything else runs in
+ * parallel. The unique key on appointment_slots still guards across instances.
+ */
+@Component
+public class AppointmentSlotLocks {
+
+    private final ReentrantLock[] stripes;
+
+    public AppointmentSlotLocks(@Value("${app.booking.lock-stripes:256}") int stripeCount) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public ReentrantLock lockFor(Long doctorId, LocalDate date) {
+        int hash = Objects.hash(doctorId, date);
+        hash ^= (hash >>> 16);
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+}
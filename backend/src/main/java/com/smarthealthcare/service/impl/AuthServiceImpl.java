@@ -1,27 +1,44 @@
 package com.smarthealthcare.service.impl;
 
+import com.smarthealthcare.dto.JwtAuthResponse;
 import com.smarthealthcare.dto.LoginDto;
 import com.smarthealthcare.dto.RegisterDto;
 import com.smarthealthcare.entity.User;
 import com.smarthealthcare.exception.APIException;
 import com.smarthealthcare.repository.UserRepository;
+import com.smarthealthcare.security.AuthenticatedUser;
+import com.smarthealthcare.security.JwtAuthenticationCache;
 import com.smarthealthcare.security.JwtTokenProvider;
+import com.smarthealthcare.security.PasswordHashingExecutor;
+import com.smarthealthcare.security.TokenRevocationList;
 import com.smarthealthcare.service.AuthService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 @Service
+@Timed("healthcare.service")
 public class AuthServiceImpl implements AuthService {
 
     private AuthenticationManager authenticationManager;
     private UserRepository userRepository;
     private PasswordEncoder passwordEncoder;
     private JwtTokenProvider jwtTokenProvider;
+    private PasswordHashingExecutor passwordHashingExecutor;
+    private TokenRevocationList tokenRevocationList;
+    private JwtAuthenticationCache jwtAuthenticationCache;
+    private UserDetailsService userDetailsService;
     private com.smarthealthcare.repository.DoctorRepository doctorRepository;
     private com.smarthealthcare.repository.HospitalRepository hospitalRepository;
 
@@ -29,46 +46,114 @@ public class AuthServiceImpl implements AuthService {
             UserRepository userRepository,
             PasswordEncoder passwordEncoder,
             JwtTokenProvider jwtTokenProvider,
+            PasswordHashingExecutor passwordHashingExecutor,
+            TokenRevocationList tokenRevocationList,
+            JwtAuthenticationCache jwtAuthenticationCache,
+            UserDetailsService userDetailsService,
             com.smarthealthcare.repository.DoctorRepository doctorRepository,
             com.smarthealthcare.repository.HospitalRepository hospitalRepository) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.tokenRevocationList = tokenRevocationList;
+        this.jwtAuthenticationCache = jwtAuthenticationCache;
+        this.userDetailsService = userDetailsService;
         this.doctorRepository = doctorRepository;
         this.hospitalRepository = hospitalRepository;
     }
 
     @Override
-    public String login(LoginDto loginDto) {
+    public CompletableFuture<JwtAuthResponse> login(LoginDto loginDto) {
+        // one lookup and one BCrypt check, both on the hashing pool; the principal carries everything else
+        return passwordHashingExecutor.submit(() -> {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginDto.getEmail(), loginDto.getPassword()));
+            // every login starts a new token family
+            return issueTokens((AuthenticatedUser) authentication.getPrincipal(), UUID.randomUUID().toString());
+        });
+    }
+
+    @Override
+    public JwtAuthResponse refresh(String refreshToken) {
+        Claims claims = refreshToken == null ? null : jwtTokenProvider.parseClaims(refreshToken);
+        if (claims == null || !JwtTokenProvider.REFRESH_TYPE.equals(claims.get(JwtTokenProvider.TYPE_CLAIM))) {
+            throw invalidRefreshToken();
+        }
+        String familyId = claims.get(JwtTokenProvider.FAMILY_CLAIM, String.class);
+        if (tokenRevocationList.isFamilyRevoked(familyId)) {
+            throw invalidRefreshToken();
+        }
 
-        Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
-                loginDto.getEmail(), loginDto.getPassword()));
+        // refresh tokens are single use; a second use means it leaked, so the whole login is ended
+        if (!tokenRevocationList.revoke(claims.getId(), claims.getExpiration().getTime())) {
+            revokeFamily(familyId);
+            jwtAuthenticationCache.invalidateUser(claims.getSubject());
+            throw invalidRefreshToken();
+        }
+
+        // reloaded so a changed role or deleted user takes effect here
+        UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            throw invalidRefreshToken();
+        }
+        AuthenticatedUser user = (AuthenticatedUser) userDetails;
+        user.eraseCredentials();
+        return issueTokens(user, familyId);
+    }
+
+    @Override
+    public void logout(String accessToken, String refreshToken) {
+        for (String token : new String[] { accessToken, refreshToken }) {
+            Claims claims = token == null ? null : jwtTokenProvider.parseClaims(token);
+            if (claims != null) {
+                String familyId = claims.get(JwtTokenProvider.FAMILY_CLAIM, String.class);
+                revokeFamily(familyId);
+                // every access token of the login, not just the one presented, must stop resolving from the cache
+                jwtAuthenticationCache.invalidateFamily(familyId);
+            }
+        }
+        if (accessToken != null) {
+            jwtAuthenticationCache.invalidateToken(accessToken);
+        }
+    }
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+    private JwtAuthResponse issueTokens(AuthenticatedUser user, String familyId) {
+        JwtAuthResponse jwtAuthResponse = new JwtAuthResponse();
+        jwtAuthResponse.setAccessToken(jwtTokenProvider.generateToken(user, familyId));
+        jwtAuthResponse.setExpiresIn(jwtTokenProvider.getExpirationMillis() / 1000);
+        jwtAuthResponse.setRefreshToken(jwtTokenProvider.generateRefreshToken(user, familyId));
+        jwtAuthResponse.setRole(user.getRole());
+        jwtAuthResponse.setId(user.getId());
+        jwtAuthResponse.setName(user.getName());
+        return jwtAuthResponse;
+    }
 
-        String token = jwtTokenProvider.generateToken(authentication);
+    // no token of the family can outlive a refresh token issued now
+    private void revokeFamily(String familyId) {
+        if (familyId != null) {
+            tokenRevocationList.revokeFamily(familyId,
+                    System.currentTimeMillis() + jwtTokenProvider.getRefreshExpirationMillis());
+        }
+    }
 
-        return token;
+    private APIException invalidRefreshToken() {
+        return new APIException(HttpStatus.UNAUTHORIZED, "Refresh token is invalid or expired.");
     }
 
     @Override
-    public String register(RegisterDto registerDto) {
+    public CompletableFuture<String> register(RegisterDto registerDto) {
 
         // check for email exists in database
         if (userRepository.existsByEmail(registerDto.getEmail())) {
             throw new APIException(HttpStatus.BAD_REQUEST, "Email is already exists!.");
         }
 
-        User user = new User();
-        user.setName(registerDto.getName());
-        user.setEmail(registerDto.getEmail());
-        user.setPassword(passwordEncoder.encode(registerDto.getPassword()));
-        user.setRole(registerDto.getRole());
-
-        userRepository.save(user);
-
-        // If the user is registering as a DOCTOR, create a Doctor entity
+        // doctor details are checked up front so a rejected request costs no hashing
+        com.smarthealthcare.entity.Hospital hospital = null;
         if (registerDto.getRole() == com.smarthealthcare.entity.Role.DOCTOR) {
             // Validate that hospitalId and specialization are provided
             if (registerDto.getHospitalId() == null || registerDto.getSpecialization() == null
@@ -78,20 +163,35 @@ public class AuthServiceImpl implements AuthService {
             }
 
             // Fetch the hospital
-            com.smarthealthcare.entity.Hospital hospital = hospitalRepository.findById(registerDto.getHospitalId())
+            hospital = hospitalRepository.findById(registerDto.getHospitalId())
                     .orElseThrow(() -> new APIException(HttpStatus.BAD_REQUEST,
                             "Hospital not found with ID: " + registerDto.getHospitalId()));
-
-            // Create Doctor entity
-            com.smarthealthcare.entity.Doctor doctor = new com.smarthealthcare.entity.Doctor();
-            doctor.setName(user.getName());
-            doctor.setSpecialization(registerDto.getSpecialization());
-            doctor.setHospital(hospital);
-            doctor.setUser(user);
-
-            doctorRepository.save(doctor);
         }
-
-        return "User registered successfully!.";
+        com.smarthealthcare.entity.Hospital doctorHospital = hospital;
+
+        // the hash runs on the hashing pool and the servlet thread is released until it is done
+        return passwordHashingExecutor.submit(() -> passwordEncoder.encode(registerDto.getPassword()))
+                .thenApply(passwordHash -> {
+                    User user = new User();
+                    user.setName(registerDto.getName());
+                    user.setEmail(registerDto.getEmail());
+                    user.setPassword(passwordHash);
+                    user.setRole(registerDto.getRole());
+
+                    userRepository.save(user);
+
+                    // If the user is registering as a DOCTOR, create a Doctor entity
+                    if (doctorHospital != null) {
+                        com.smarthealthcare.entity.Doctor doctor = new com.smarthealthcare.entity.Doctor();
+                        doctor.setName(user.getName());
+                        doctor.setSpecialization(registerDto.getSpecialization());
+                        doctor.setHospital(doctorHospital);
+                        doctor.setUser(user);
+
+                        doctorRepository.save(doctor);
+                    }
+
+                    return "User registered successfully!.";
+                });
     }
 }
@@ -0,0 +1,395 @@
+package com.smarthealthcare.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthealthcare.dto.DoctorDto;
+import com.smarthealthcare.dto.HospitalDto;
+import com.smarthealthcare.dto.ImportErrorDto;
+import com.smarthealthcare.dto.ImportResultDto;
+import com.smarthealthcare.dto.RegisterDto;
+import com.smarthealthcare.entity.Role;
+import com.smarthealthcare.exception.APIException;
+import com.smarthealthcare.repository.HospitalRepository;
+import com.smarthealthcare.service.BulkImportService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Streams CSV or NDJSON imports straight into the database. Rows are parsed
+ * and validated one at a time and written in chunks, each chunk as one JDBC
+ * batch in its own transaction. When a chunk is rejected (a duplicate email,
+ * say) its rows are retried one by one so only the offending rows fail.
+ * Plain JDBC skips the entity listeners, so the in-memory indexes and the
+ * reference cache are updated here once each chunk commits.
+ */
+@Service
+@Timed("healthcare.service")
+public class BulkImportServiceImpl implements BulkImportService {
+
+    private static final String INSERT_HOSPITAL = "insert into hospitals "
+            + "(name, location, latitude, longitude, total_beds, available_beds) values (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_DOCTOR = "insert into doctors "
+            + "(name, specialization, hospital_id, user_id) values (?, ?, ?, ?)";
+    private static final String INSERT_USER = "insert into users (name, email, password, role) values (?, ?, ?, ?)";
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private HospitalRepository hospitalRepository;
+    private HospitalGeoIndex hospitalGeoIndex;
+    private DoctorCalendarIndex doctorCalendarIndex;
+    private DoctorSearchIndex doctorSearchIndex;
+    private ReferenceDataCache referenceDataCache;
+    private PasswordEncoder passwordEncoder;
+    private ObjectMapper objectMapper;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public BulkImportServiceImpl(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            HospitalRepository hospitalRepository,
+            HospitalGeoIndex hospitalGeoIndex,
+            DoctorCalendarIndex doctorCalendarIndex,
+            DoctorSearchIndex doctorSearchIndex,
+            ReferenceDataCache referenceDataCache,
+            PasswordEncoder passwordEncoder,
+            ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.hospitalRepository = hospitalRepository;
+        this.hospitalGeoIndex = hospitalGeoIndex;
+        this.doctorCalendarIndex = doctorCalendarIndex;
+        this.doctorSearchIndex = doctorSearchIndex;
+        this.referenceDataCache = referenceDataCache;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ImportResultDto importHospitals(InputStream content, String contentType) throws IOException {
+        return importRows(content, contentType, HospitalDto.class, this::validateHospital, null, this::insertHospitals);
+    }
+
+    @Override
+    public ImportResultDto importDoctors(InputStream content, String contentType) throws IOException {
+        Map<Long, Boolean> knownHospitals = new HashMap<>();
+        return importRows(content, contentType, DoctorDto.class,
+                doctor -> validateDoctor(doctor, knownHospitals), null, this::insertDoctors);
+    }
+
+    @Override
+    public ImportResultDto importUsers(InputStream content, String contentType) throws IOException {
+        Map<Long, Boolean> knownHospitals = new HashMap<>();
+        return importRows(content, contentType, RegisterDto.class,
+                user -> validateUser(user, knownHospitals), this::encodePasswords, this::insertUsers);
+    }
+
+    private <T> ImportResultDto importRows(InputStream content, String contentType, Class<T> type,
+            Function<T, String> validator, Consumer<List<T>> beforeChunk, Consumer<List<T>> inserter)
+            throws IOException {
+        long started = System.currentTimeMillis();
+        ImportProgress progress = new ImportProgress();
+        List<PendingRow<T>> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(content, StandardCharsets.UTF_8))) {
+            ImportRowReader rows = new ImportRowReader(reader, isCsv(contentType), objectMapper);
+            for (ImportRowReader.Row row = rows.next(); row != null; row = rows.next()) {
+                if (row.error() != null) {
+                    progress.fail(row.line(), row.error());
+                    continue;
+                }
+                T value;
+                try {
+                    value = objectMapper.convertValue(row.values(), type);
+                } catch (IllegalArgumentException e) {
+                    progress.fail(row.line(), "Invalid value: " + rootMessage(e));
+                    continue;
+                }
+                String error = validator.apply(value);
+                if (error != null) {
+                    progress.fail(row.line(), error);
+                    continue;
+                }
+                chunk.add(new PendingRow<>(row.line(), value));
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, beforeChunk, inserter, progress);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, beforeChunk, inserter, progress);
+        }
+        return new ImportResultDto(progress.imported, progress.failed, System.currentTimeMillis() - started,
+                progress.errors);
+    }
+
+    private <T> void writeChunk(List<PendingRow<T>> chunk, Consumer<List<T>> beforeChunk,
+            Consumer<List<T>> inserter, ImportProgress progress) {
+        List<T> values = chunk.stream().map(PendingRow::value).toList();
+        if (beforeChunk != null) {
+            beforeChunk.accept(values);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> inserter.accept(values));
+            progress.imported += values.size();
+            return;
+        } catch (DataAccessException e) {
+            // fall through and find the rows the database refused
+        }
+        for (PendingRow<T> row : chunk) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> inserter.accept(List.of(row.value())));
+                progress.imported++;
+            } catch (DataAccessException e) {
+                progress.fail(row.line(), e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private void insertHospitals(List<HospitalDto> hospitals) {
+        List<Long> ids = insert(INSERT_HOSPITAL, hospitals.size(), (ps, i) -> {
+            HospitalDto hospital = hospitals.get(i);
+            ps.setString(1, hospital.getName());
+            ps.setString(2, hospital.getLocation());
+            ps.setDouble(3, hospital.getLatitude());
+            ps.setDouble(4, hospital.getLongitude());
+            ps.setInt(5, hospital.getTotalBeds());
+            ps.setInt(6, hospital.getAvailableBeds());
+        });
+        // no bed events here: an import can be far larger than a subscriber queue
+        afterCommit(() -> {
+            for (int i = 0; i < ids.size(); i++) {
+                HospitalDto hospital = hospitals.get(i);
+                hospitalGeoIndex.put(ids.get(i), hospital.getLatitude(), hospital.getLongitude(),
+                        hospital.getAvailableBeds());
+            }
+            // new ids only land on the last page, which any one of them invalidates
+            referenceDataCache.hospitalChanged(ids.get(ids.size() - 1));
+        });
+    }
+
+    private void insertDoctors(List<DoctorDto> doctors) {
+        insertDoctors(doctors, null);
+    }
+
+    // userIds lines up with doctors, or is null for doctors without a login
+    private void insertDoctors(List<DoctorDto> doctors, List<Long> userIds) {
+        List<Long> ids = insert(INSERT_DOCTOR, doctors.size(), (ps, i) -> {
+            DoctorDto doctor = doctors.get(i);
+            ps.setString(1, doctor.getName());
+            ps.setString(2, doctor.getSpecialization());
+            ps.setLong(3, doctor.getHospitalId());
+            if (userIds != null) {
+                ps.setLong(4, userIds.get(i));
+            } else {
+                ps.setNull(4, Types.BIGINT);
+            }
+        });
+        afterCommit(() -> doctorsAdded(ids, doctors));
+    }
+
+    private void insertUsers(List<RegisterDto> users) {
+        List<Long> userIds = insert(INSERT_USER, users.size(), (ps, i) -> {
+            RegisterDto user = users.get(i);
+            ps.setString(1, user.getName());
+            ps.setString(2, user.getEmail());
+            ps.setString(3, user.getPassword());
+            ps.setString(4, user.getRole().name());
+        });
+
+        List<DoctorDto> doctors = new ArrayList<>();
+        List<Long> doctorUserIds = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            RegisterDto user = users.get(i);
+            if (user.getRole() == Role.DOCTOR) {
+                doctors.add(new DoctorDto(null, user.getName(), user.getSpecialization(), user.getHospitalId()));
+                doctorUserIds.add(userIds.get(i));
+            }
+        }
+        if (!doctors.isEmpty()) {
+            insertDoctors(doctors, doctorUserIds);
+        }
+    }
+
+    private void doctorsAdded(List<Long> ids, List<DoctorDto> doctors) {
+        Set<Long> hospitalIds = new LinkedHashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            DoctorDto doctor = doctors.get(i);
+            doctorCalendarIndex.putDoctor(ids.get(i), doctor.getName(), doctor.getSpecialization(),
+                    doctor.getHospitalId());
+            doctorSearchIndex.put(ids.get(i), doctor.getName(), doctor.getSpecialization(), doctor.getHospitalId());
+            hospitalIds.add(doctor.getHospitalId());
+        }
+        Long lastId = ids.get(ids.size() - 1);
+        for (Long hospitalId : hospitalIds) {
+            referenceDataCache.doctorChanged(lastId, hospitalId);
+        }
+    }
+
+    // BCrypt dominates a user import, so the chunk is hashed in parallel before its transaction opens
+    private void encodePasswords(List<RegisterDto> users) {
+        users.parallelStream()
+                .filter(user -> !BCRYPT_HASH.matcher(user.getPassword()).matches())
+                .forEach(user -> user.setPassword(passwordEncoder.encode(user.getPassword())));
+    }
+
+    private List<Long> insert(String sql, int rowCount, RowBinder binder) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[] { "id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        binder.bind(ps, i);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rowCount;
+                    }
+                }, keyHolder);
+        return keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+                .toList();
+    }
+
+    private String validateHospital(HospitalDto hospital) {
+        if (isBlank(hospital.getName()) || isBlank(hospital.getLocation())) {
+            return "Hospital name and location are required.";
+        }
+        if (hospital.getLatitude() == null || hospital.getLongitude() == null
+                || Math.abs(hospital.getLatitude()) > 90 || Math.abs(hospital.getLongitude()) > 180) {
+            return "A valid latitude and longitude are required.";
+        }
+        if (hospital.getTotalBeds() < 0 || hospital.getAvailableBeds() < 0
+                || hospital.getAvailableBeds() > hospital.getTotalBeds()) {
+            return "Available beds must be between 0 and total beds.";
+        }
+        return null;
+    }
+
+    private String validateDoctor(DoctorDto doctor, Map<Long, Boolean> knownHospitals) {
+        if (isBlank(doctor.getName()) || isBlank(doctor.getSpecialization())) {
+            return "Doctor name and specialization are required.";
+        }
+        return validateHospitalId(doctor.getHospitalId(), knownHospitals);
+    }
+
+    private String validateUser(RegisterDto user, Map<Long, Boolean> knownHospitals) {
+        if (isBlank(user.getName()) || isBlank(user.getEmail()) || isBlank(user.getPassword())
+                || user.getRole() == null) {
+            return "Name, email, password and role are required.";
+        }
+        if (user.getRole() == Role.DOCTOR) {
+            if (isBlank(user.getSpecialization())) {
+                return "Hospital ID and specialization are required for doctors.";
+            }
+            return validateHospitalId(user.getHospitalId(), knownHospitals);
+        }
+        return null;
+    }
+
+    // imports usually reference a handful of hospitals, so each is looked up once
+    private String validateHospitalId(Long hospitalId, Map<Long, Boolean> knownHospitals) {
+        if (hospitalId == null) {
+            return "Hospital ID is required.";
+        }
+        if (!knownHospitals.computeIfAbsent(hospitalId, hospitalRepository::existsById)) {
+            return "Hospital not found with id : '" + hospitalId + "'";
+        }
+        return null;
+    }
+
+    private static boolean isCsv(String contentType) {
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (RuntimeException e) {
+            mediaType = null;
+        }
+        if (mediaType != null && mediaType.isCompatibleWith(MediaType.valueOf("text/csv"))) {
+            return true;
+        }
+        if (mediaType != null && mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+            return false;
+        }
+        throw new APIException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Imports must be text/csv or application/x-ndjson.");
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        // Jackson appends the source location on later lines
+        String message = String.valueOf(root.getMessage());
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+
+    private class ImportProgress {
+        private long imported;
+        private long failed;
+        private final List<ImportErrorDto> errors = new ArrayList<>();
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportErrorDto(line, message));
+            }
+        }
+    }
+
+    private record PendingRow<T>(long line, T value) {
+    }
+
+    private interface RowBinder {
+        void bind(PreparedStatement ps, int row) throws SQLException;
+    }
+}
@@ -0,0 +1,199 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.security.AuthenticatedUser;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Registry of Server-Sent Events subscribers grouped by topic. Publishing
+ * only queues the event on each subscriber; a virtual thread per busy
+ * subscriber writes it out, so an idle connection costs no thread and a slow
+ * one cannot hold up the rest. A subscriber whose queue overflows is closed
+ * and left to reconnect. Each client may hold a limited number of streams open.
+ */
+@Component
+public class ChangeEventBroadcaster {
+
+    public static final String HOSPITAL_BEDS = "hospital-beds";
+
+    private final long emitterTimeoutMillis;
+    private final int queueCapacity;
+    private final int maxStreamsPerClient;
+
+    private final Map<String, Set<Subscriber>> topics = new ConcurrentHashMap<>();
+    private final Map<String, Integer> openStreams = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sse-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ChangeEventBroadcaster(@Value("${app.events.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+            @Value("${app.events.queue-capacity:256}") int queueCapacity,
+            @Value("${app.events.heartbeat-seconds:30}") long heartbeatSeconds,
+            @Value("${app.events.max-streams-per-client:5}") int maxStreamsPerClient) {
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.queueCapacity = queueCapacity;
+        this.maxStreamsPerClient = maxStreamsPerClient;
+        // comments keep proxies from closing idle streams and flush out dead connections
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    public static String doctorTopic(Long doctorId) {
+        return "doctor-" + doctorId;
+    }
+
+    public static String patientTopic(Long patientId) {
+        return "patient-" + patientId;
+    }
+
+    // signed-in users are counted across all their devices, everybody else by address
+    public static String clientOf(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return "user-" + user.getId();
+        }
+        return "address-" + request.getRemoteAddr();
+    }
+
+    /**
+     * Opens a stream of {@code topic} for {@code client}, or returns null when
+     * the client already has as many streams open as it may.
+     */
+    public SseEmitter subscribe(String topic, String client) {
+        boolean[] admitted = new boolean[1];
+        openStreams.compute(client, (key, open) -> {
+            int count = open == null ? 0 : open;
+            if (count >= maxStreamsPerClient) {
+                return open;
+            }
+            admitted[0] = true;
+            return count + 1;
+        });
+        if (!admitted[0]) {
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(topic, client, emitter, new ArrayBlockingQueue<>(queueCapacity));
+        topics.computeIfAbsent(topic, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        // completing here ends the stream quietly instead of raising AsyncRequestTimeoutException;
+        // Tomcat also reports clients that went away as timeouts
+        emitter.onTimeout(() -> {
+            unsubscribe(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(ex -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Queues {@code data} as an event named {@code name} for every subscriber
+     * of {@code topic}.
+     */
+    public void publish(String topic, String name, Object data) {
+        Set<Subscriber> subscribers = topics.get(topic);
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, SseEmitter.event().name(name).data(data));
+        }
+    }
+
+    public int subscriberCount() {
+        return topics.values().stream().mapToInt(Set::size).sum();
+    }
+
+    public int streamCount(String client) {
+        return openStreams.getOrDefault(client, 0);
+    }
+
+    private void sendHeartbeat() {
+        for (Set<Subscriber> subscribers : topics.values()) {
+            for (Subscriber subscriber : subscribers) {
+                enqueue(subscriber, SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.queue().offer(event)) {
+            unsubscribe(subscriber);
+            subscriber.emitter().complete();
+            return;
+        }
+        if (subscriber.draining().compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.queue().poll()) != null) {
+                try {
+                    subscriber.emitter().send(event);
+                } catch (IOException | IllegalStateException ex) {
+                    unsubscribe(subscriber);
+                    subscriber.queue().clear();
+                    return;
+                }
+            }
+            subscriber.draining().set(false);
+            // an event queued after the last poll but before the flag was cleared found it still set
+            if (subscriber.queue().isEmpty() || !subscriber.draining().compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        boolean[] removed = new boolean[1];
+        topics.computeIfPresent(subscriber.topic(), (key, subscribers) -> {
+            removed[0] = subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        // completion, timeout and error can all report the same stream
+        if (removed[0]) {
+            openStreams.computeIfPresent(subscriber.client(), (key, open) -> open > 1 ? open - 1 : null);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        senders.shutdownNow();
+        // the web server has already closed the streams by the time beans are destroyed
+        topics.clear();
+        openStreams.clear();
+    }
+
+    private record Subscriber(String topic, String client, SseEmitter emitter,
+            Queue<SseEmitter.SseEventBuilder> queue, AtomicBoolean draining) {
+
+        Subscriber(String topic, String client, SseEmitter emitter, Queue<SseEmitter.SseEventBuilder> queue) {
+            this(topic, client, emitter, queue, new AtomicBoolean());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.smarthealthcare.service.impl;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import com.smarthealthcare.service.RecordStorage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryRecordStorage implements RecordStorage {
+
+    private final Cloudinary cloudinary;
+
+    public CloudinaryRecordStorage() {
+        // You should move these to application.properties and inject them
+        this.cloudinary = new Cloudinary(ObjectUtils.asMap(
+                "cloud_name", "djow7yqxw",
+                "api_key", "634915868694885",
+                "api_secret", "6FC24_k8S5TAewp5V9WhwSZeXsg"));
+    }
+
+    @Override
+    public String store(String key, Path file) throws IOException {
+        // the SDK streams a File from disk
+        Map uploadResult = cloudinary.uploader().upload(file.toFile(), ObjectUtils.emptyMap());
+        return uploadResult.get("url").toString();
+    }
+
+    @Override
+    public Resource load(String key) {
+        // files are served by Cloudinary
+        return null;
+    }
+}
@@ -0,0 +1,200 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.dto.DoctorAvailabilityDto;
+import com.smarthealthcare.dto.DoctorSlotDto;
+import com.smarthealthcare.repository.AppointmentSlotRepository;
+import com.smarthealthcare.repository.BookedSlot;
+import com.smarthealthcare.repository.DoctorRepository;
+import com.smarthealthcare.repository.DoctorSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-doctor bitmap of booked slots, one bit per slot of the working day and
+ * one bitmap per day that has bookings. Availability questions are answered
+ * from memory; the index is loaded once from appointment_slots and then kept
+ * current by the booking and cancel paths and by {@link DoctorCalendarIndexListener}.
+ */
+@Component
+public class DoctorCalendarIndex {
+
+    private final DoctorRepository doctorRepository;
+    private final AppointmentSlotRepository appointmentSlotRepository;
+
+    private final int slotMinutes;
+    private final int slotsPerDay;
+    private final int firstWorkingSlot;
+    private final int endWorkingSlot;
+
+    private final Map<Long, Calendar> calendars = new ConcurrentHashMap<>();
+
+    public DoctorCalendarIndex(DoctorRepository doctorRepository,
+            AppointmentSlotRepository appointmentSlotRepository,
+            @Value("${app.booking.slot-minutes:30}") int slotMinutes,
+            @Value("${app.booking.day-start:09:00}") String dayStart,
+            @Value("${app.booking.day-end:17:00}") String dayEnd) {
+        this.doctorRepository = doctorRepository;
+        this.appointmentSlotRepository = appointmentSlotRepository;
+        this.slotMinutes = slotMinutes;
+        this.slotsPerDay = 24 * 60 / slotMinutes;
+        this.firstWorkingSlot = slotOf(LocalTime.parse(dayStart));
+        this.endWorkingSlot = slotOf(LocalTime.parse(dayEnd));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<DoctorSummary> doctors = doctorRepository.findAllSummaries();
+        List<BookedSlot> bookedSlots = appointmentSlotRepository.findAllBooked();
+
+        calendars.clear();
+        for (DoctorSummary doctor : doctors) {
+            putDoctor(doctor.getId(), doctor.getName(), doctor.getSpecialization(), doctor.getHospitalId());
+        }
+        for (BookedSlot slot : bookedSlots) {
+            book(slot.getDoctorId(), slot.getDate(), slot.getTime());
+        }
+    }
+
+    public void putDoctor(Long id, String name, String specialization, Long hospitalId) {
+        calendars.compute(id, (key, existing) -> new Calendar(id, name, specialization, hospitalId,
+                existing != null ? existing.booked : new ConcurrentHashMap<>()));
+    }
+
+    public void removeDoctor(Long id) {
+        calendars.remove(id);
+    }
+
+    public boolean hasDoctor(Long id) {
+        return calendars.containsKey(id);
+    }
+
+    public void book(Long doctorId, LocalDate date, LocalTime time) {
+        Calendar calendar = calendars.get(doctorId);
+        if (calendar == null) {
+            return;
+        }
+        int slot = slotOf(time);
+        calendar.booked.compute(date.toEpochDay(), (day, words) -> {
+            long[] updated = words == null ? new long[(slotsPerDay + 63) / 64] : words.clone();
+            updated[slot >> 6] |= 1L << slot;
+            return updated;
+        });
+    }
+
+    public void release(Long doctorId, LocalDate date, LocalTime time) {
+        Calendar calendar = calendars.get(doctorId);
+        if (calendar == null) {
+            return;
+        }
+        int slot = slotOf(time);
+        calendar.booked.computeIfPresent(date.toEpochDay(), (day, words) -> {
+            long[] updated = words.clone();
+            updated[slot >> 6] &= ~(1L << slot);
+            for (long word : updated) {
+                if (word != 0) {
+                    return updated;
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Free slots per day for {@code from}..{@code to} inclusive; slots already
+     * in the past are left out. Returns null for an unknown doctor.
+     */
+    public List<DoctorAvailabilityDto> availability(Long doctorId, LocalDate from, LocalDate to) {
+        Calendar calendar = calendars.get(doctorId);
+        if (calendar == null) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<DoctorAvailabilityDto> days = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            long[] booked = calendar.booked.get(date.toEpochDay());
+            List<LocalTime> free = new ArrayList<>();
+            for (int slot = firstFreeFrom(date, now); slot < endWorkingSlot; slot++) {
+                if (!isBooked(booked, slot)) {
+                    free.add(timeOf(slot));
+                }
+            }
+            days.add(new DoctorAvailabilityDto(date, free));
+        }
+        return days;
+    }
+
+    /**
+     * Earliest free slot within {@code days} days from {@code from} among doctors
+     * with the given specialization (and hospital, when given), or null.
+     */
+    public DoctorSlotDto firstAvailable(String specialization, Long hospitalId, LocalDate from, int days) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int offset = 0; offset < days; offset++) {
+            LocalDate date = from.plusDays(offset);
+            long epochDay = date.toEpochDay();
+            int startSlot = firstFreeFrom(date, now);
+
+            Calendar best = null;
+            int bestSlot = endWorkingSlot;
+            for (Calendar calendar : calendars.values()) {
+                if (!calendar.specialization.equalsIgnoreCase(specialization)
+                        || (hospitalId != null && !hospitalId.equals(calendar.hospitalId))) {
+                    continue;
+                }
+                long[] booked = calendar.booked.get(epochDay);
+                for (int slot = startSlot; slot < endWorkingSlot && slot <= bestSlot; slot++) {
+                    if (!isBooked(booked, slot)) {
+                        // ties go to the lowest doctor id so the answer is stable
+                        if (slot < bestSlot || calendar.id < best.id) {
+                            best = calendar;
+                            bestSlot = slot;
+                        }
+                        break;
+                    }
+                }
+            }
+            if (best != null) {
+                return new DoctorSlotDto(best.id, best.name, best.specialization, best.hospitalId,
+                        date, timeOf(bestSlot));
+            }
+        }
+        return null;
+    }
+
+    private int firstFreeFrom(LocalDate date, LocalDateTime now) {
+        if (date.isBefore(now.toLocalDate())) {
+            return endWorkingSlot;
+        }
+        if (date.isAfter(now.toLocalDate())) {
+            return firstWorkingSlot;
+        }
+        // the slot in progress is no longer bookable
+        return Math.max(firstWorkingSlot, slotOf(now.toLocalTime()) + 1);
+    }
+
+    private static boolean isBooked(long[] booked, int slot) {
+        return booked != null && (booked[slot >> 6] & (1L << slot)) != 0;
+    }
+
+    private int slotOf(LocalTime time) {
+        return time.toSecondOfDay() / 60 / slotMinutes;
+    }
+
+    private LocalTime timeOf(int slot) {
+        return LocalTime.ofSecondOfDay((long) slot * slotMinutes * 60);
+    }
+
+    private record Calendar(Long id, String name, String specialization, Long hospitalId,
+            Map<Long, long[]> booked) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.entity.Doctor;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the doctor details in {@link DoctorCalendarIndex} in step with every
+ * persisted doctor, whether created by an admin or by a DOCTOR registration.
+ */
+@Component
+public class DoctorCalendarIndexListener {
+
+    private final DoctorCalendarIndex doctorCalendarIndex;
+
+    // lazy for the same reason as HospitalGeoIndexListener
+    public DoctorCalendarIndexListener(@Lazy DoctorCalendarIndex doctorCalendarIndex) {
+        this.doctorCalendarIndex = doctorCalendarIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Doctor doctor) {
+        doctorCalendarIndex.putDoctor(doctor.getId(), doctor.getName(), doctor.getSpecialization(),
+                doctor.getHospital() != null ? doctor.getHospital().getId() : null);
+    }
+
+    @PostRemove
+    public void onRemove(Doctor doctor) {
+        doctorCalendarIndex.removeDoctor(doctor.getId());
+    }
+}
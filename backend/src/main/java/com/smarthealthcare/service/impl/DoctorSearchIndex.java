@@ -0,0 +1,278 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.dto.DoctorDto;
+import com.smarthealthcare.repository.DoctorRepository;
+import com.smarthealthcare.repository.DoctorSummary;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead index over doctor name and specialization. Every word is indexed
+ * as trigrams, padded at the front so one- and two-letter prefixes have grams
+ * too; a query token of three or more letters matches anywhere in a word,
+ * a shorter one only at the start of a word. Posting lists are sorted doctor
+ * ids, so a search walks the shortest list, checks the others by binary
+ * search and stops as soon as it has enough verified matches.
+ * <p>
+ * Loaded from the database at startup, then kept current by
+ * {@link DoctorSearchIndexListener} and the bulk importer.
+ */
+@Component
+public class DoctorSearchIndex {
+
+    private final DoctorRepository doctorRepository;
+
+    // searches run in parallel; writes are rare and short
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, Entry> entries = new HashMap<>();
+    private Map<Long, Postings> grams = new HashMap<>();
+    private Map<Long, Postings> hospitals = new HashMap<>();
+
+    public DoctorSearchIndex(DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<DoctorSummary> doctors = new ArrayList<>(doctorRepository.findAllSummaries());
+        // ascending ids turn every posting insert into an append
+        doctors.sort(Comparator.comparing(DoctorSummary::getId));
+
+        Map<Long, Entry> newEntries = new HashMap<>();
+        Map<Long, Postings> newGrams = new HashMap<>();
+        Map<Long, Postings> newHospitals = new HashMap<>();
+        for (DoctorSummary doctor : doctors) {
+            add(newEntries, newGrams, newHospitals, entry(doctor.getId(), doctor.getName(),
+                    doctor.getSpecialization(), doctor.getHospitalId()));
+        }
+
+        lock.writeLock().lock();
+        try {
+            entries = newEntries;
+            grams = newGrams;
+            hospitals = newHospitals;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Long id, String name, String specialization, Long hospitalId) {
+        Entry entry = entry(id, name, specialization, hospitalId);
+        lock.writeLock().lock();
+        try {
+            Entry existing = entries.get(id);
+            if (existing != null) {
+                removeLocked(existing);
+            }
+            add(entries, grams, hospitals, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Entry existing = entries.get(id);
+            if (existing != null) {
+                removeLocked(existing);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Doctors whose name or specialization contains every word of
+     * {@code query}, lowest id first, optionally within one hospital.
+     */
+    public List<DoctorDto> search(String query, Long hospitalId, int limit) {
+        List<String> tokens = words(query);
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Long> queryGrams = new LinkedHashSet<>();
+        for (String token : tokens) {
+            if (token.length() < 3) {
+                // prefix: the padded gram that ends with the token
+                queryGrams.add(gram(token.length() == 1 ? "  " + token : " " + token));
+            } else {
+                for (int i = 0; i + 3 <= token.length(); i++) {
+                    queryGrams.add(gram(token.substring(i, i + 3)));
+                }
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(queryGrams.size() + 1);
+            for (Long queryGram : queryGrams) {
+                Postings postings = grams.get(queryGram);
+                if (postings == null) {
+                    return new ArrayList<>();
+                }
+                lists.add(postings);
+            }
+            if (hospitalId != null) {
+                Postings postings = hospitals.get(hospitalId);
+                if (postings == null) {
+                    return new ArrayList<>();
+                }
+                lists.add(postings);
+            }
+            lists.sort(Comparator.comparingInt(postings -> postings.size));
+
+            Postings shortest = lists.get(0);
+            List<DoctorDto> matches = new ArrayList<>(Math.min(limit, shortest.size));
+            for (int i = 0; i < shortest.size && matches.size() < limit; i++) {
+                long id = shortest.ids[i];
+                if (inAll(lists, id)) {
+                    Entry entry = entries.get(id);
+                    // all grams present does not mean the token is, "card" has both of its grams in "carl hard"
+                    if (entry.matches(tokens)) {
+                        matches.add(new DoctorDto(entry.id, entry.name, entry.specialization, entry.hospitalId));
+                    }
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean inAll(List<Postings> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void add(Map<Long, Entry> entries, Map<Long, Postings> grams, Map<Long, Postings> hospitals,
+            Entry entry) {
+        entries.put(entry.id, entry);
+        for (long entryGram : entry.grams) {
+            grams.computeIfAbsent(entryGram, key -> new Postings()).add(entry.id);
+        }
+        if (entry.hospitalId != null) {
+            hospitals.computeIfAbsent(entry.hospitalId, key -> new Postings()).add(entry.id);
+        }
+    }
+
+    private void removeLocked(Entry entry) {
+        entries.remove(entry.id);
+        for (long entryGram : entry.grams) {
+            removePosting(grams, entryGram, entry.id);
+        }
+        if (entry.hospitalId != null) {
+            removePosting(hospitals, entry.hospitalId, entry.id);
+        }
+    }
+
+    private static void removePosting(Map<Long, Postings> map, long key, long id) {
+        Postings postings = map.get(key);
+        if (postings != null && postings.remove(id) && postings.size == 0) {
+            map.remove(key);
+        }
+    }
+
+    private static Entry entry(Long id, String name, String specialization, Long hospitalId) {
+        List<String> words = words(name + " " + specialization);
+        Set<Long> entryGrams = new LinkedHashSet<>();
+        for (String word : words) {
+            String padded = "  " + word;
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                entryGrams.add(gram(padded.substring(i, i + 3)));
+            }
+        }
+        return new Entry(id, name, specialization, hospitalId, " " + String.join(" ", words),
+                entryGrams.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    // lower-cased runs of letters and digits; "Dr. Asha Rao" -> [dr, asha, rao]
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static long gram(String threeChars) {
+        return ((long) threeChars.charAt(0) << 32) | ((long) threeChars.charAt(1) << 16) | threeChars.charAt(2);
+    }
+
+    private record Entry(Long id, String name, String specialization, Long hospitalId, String text,
+            long[] grams) {
+
+        boolean matches(List<String> tokens) {
+            for (String token : tokens) {
+                if (!text.contains(token.length() < 3 ? " " + token : token)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // sorted ids; new doctors have the highest ids, so adding is nearly always an append
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int index = size == 0 || ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -(index + 1);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.entity.Doctor;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps {@link DoctorSearchIndex} in step with every persisted doctor, whether
+ * created by an admin or by a DOCTOR registration.
+ */
+@Component
+public class DoctorSearchIndexListener {
+
+    private final DoctorSearchIndex doctorSearchIndex;
+
+    // lazy for the same reason as HospitalGeoIndexListener
+    public DoctorSearchIndexListener(@Lazy DoctorSearchIndex doctorSearchIndex) {
+        this.doctorSearchIndex = doctorSearchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Doctor doctor) {
+        doctorSearchIndex.put(doctor.getId(), doctor.getName(), doctor.getSpecialization(),
+                doctor.getHospital() != null ? doctor.getHospital().getId() : null);
+    }
+
+    @PostRemove
+    public void onRemove(Doctor doctor) {
+        doctorSearchIndex.remove(doctor.getId());
+    }
+}
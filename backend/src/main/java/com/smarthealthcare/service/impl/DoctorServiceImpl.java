@@ -1,30 +1,56 @@
 package com.smarthealthcare.service.impl;
 
+import com.smarthealthcare.dto.CursorPage;
+import com.smarthealthcare.dto.DoctorAvailabilityDto;
 import com.smarthealthcare.dto.DoctorDto;
+import com.smarthealthcare.dto.DoctorSlotDto;
 import com.smarthealthcare.entity.Doctor;
 import com.smarthealthcare.entity.Hospital;
+import com.smarthealthcare.exception.APIException;
 import com.smarthealthcare.exception.ResourceNotFoundException;
+import com.smarthealthcare.mapper.DoctorMapper;
 import com.smarthealthcare.repository.DoctorRepository;
 import com.smarthealthcare.repository.HospitalRepository;
 import com.smarthealthcare.service.DoctorService;
-import org.modelmapper.ModelMapper;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed("healthcare.service")
 public class DoctorServiceImpl implements DoctorService {
 
     private DoctorRepository doctorRepository;
     private HospitalRepository hospitalRepository;
-    private ModelMapper modelMapper;
+    private DoctorCalendarIndex doctorCalendarIndex;
+    private DoctorSearchIndex doctorSearchIndex;
+    private ReferenceDataCache referenceDataCache;
+    private DoctorMapper doctorMapper;
+
+    @Value("${app.availability.max-days:31}")
+    private int maxAvailabilityDays;
+
+    @Value("${app.doctor-search.max-results:50}")
+    private int maxSearchResults;
 
     public DoctorServiceImpl(DoctorRepository doctorRepository, HospitalRepository hospitalRepository,
-            ModelMapper modelMapper) {
+            DoctorCalendarIndex doctorCalendarIndex, DoctorSearchIndex doctorSearchIndex,
+            ReferenceDataCache referenceDataCache, DoctorMapper doctorMapper) {
         this.doctorRepository = doctorRepository;
         this.hospitalRepository = hospitalRepository;
-        this.modelMapper = modelMapper;
+        this.doctorCalendarIndex = doctorCalendarIndex;
+        this.doctorSearchIndex = doctorSearchIndex;
+        this.referenceDataCache = referenceDataCache;
+        this.doctorMapper = doctorMapper;
     }
 
     @Override
@@ -32,44 +58,47 @@ public class DoctorServiceImpl implements DoctorService {
         Hospital hospital = hospitalRepository.findById(doctorDto.getHospitalId())
                 .orElseThrow(() -> new ResourceNotFoundException("Hospital", "id", doctorDto.getHospitalId()));
 
-        Doctor doctor = modelMapper.map(doctorDto, Doctor.class);
+        Doctor doctor = doctorMapper.toEntity(doctorDto);
         doctor.setHospital(hospital);
 
         Doctor savedDoctor = doctorRepository.save(doctor);
 
-        DoctorDto savedDoctorDto = modelMapper.map(savedDoctor, DoctorDto.class);
-        savedDoctorDto.setHospitalId(hospital.getId());
-
-        return savedDoctorDto;
+        return doctorMapper.toDto(savedDoctor);
     }
 
     @Override
     public DoctorDto getDoctorById(Long id) {
-        Doctor doctor = doctorRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Doctor", "id", id));
-        DoctorDto doctorDto = modelMapper.map(doctor, DoctorDto.class);
-        doctorDto.setHospitalId(doctor.getHospital().getId());
-        return doctorDto;
+        return referenceDataCache.doctor(id, () -> {
+            Doctor doctor = doctorRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Doctor", "id", id));
+            return doctorMapper.toDto(doctor);
+        });
+    }
+
+    @Override
+    public CursorPage<DoctorDto> getAllDoctors(Long after, int size) {
+        return referenceDataCache.doctorPage(after, size, () -> {
+            List<Doctor> doctors = doctorRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after,
+                    Limit.of(size + 1));
+            return CursorPage.of(doctors, size, Doctor::getId, doctorMapper::toDto);
+        });
     }
 
     @Override
-    public List<DoctorDto> getAllDoctors() {
-        List<Doctor> doctors = doctorRepository.findAll();
-        return doctors.stream().map(doctor -> {
-            DoctorDto dto = modelMapper.map(doctor, DoctorDto.class);
-            dto.setHospitalId(doctor.getHospital().getId());
-            return dto;
-        }).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public void streamAllDoctors(Consumer<DoctorDto> consumer) {
+        try (Stream<DoctorDto> doctors = doctorRepository.streamAll()) {
+            doctors.forEach(consumer);
+        }
     }
 
     @Override
-    public List<DoctorDto> getDoctorsByHospital(Long hospitalId) {
-        List<Doctor> doctors = doctorRepository.findByHospitalId(hospitalId);
-        return doctors.stream().map(doctor -> {
-            DoctorDto dto = modelMapper.map(doctor, DoctorDto.class);
-            dto.setHospitalId(doctor.getHospital().getId());
-            return dto;
-        }).collect(Collectors.toList());
+    public CursorPage<DoctorDto> getDoctorsByHospital(Long hospitalId, Long after, int size) {
+        return referenceDataCache.doctorsByHospitalPage(hospitalId, after, size, () -> {
+            List<Doctor> doctors = doctorRepository.findByHospitalIdAndIdGreaterThanOrderByIdAsc(hospitalId,
+                    after == null ? 0L : after, Limit.of(size + 1));
+            return CursorPage.of(doctors, size, Doctor::getId, doctorMapper::toDto);
+        });
     }
 
     @Override
@@ -87,9 +116,7 @@ public class DoctorServiceImpl implements DoctorService {
         doctor.setSpecialization(doctorDto.getSpecialization());
 
         Doctor updatedDoctor = doctorRepository.save(doctor);
-        DoctorDto updatedDto = modelMapper.map(updatedDoctor, DoctorDto.class);
-        updatedDto.setHospitalId(updatedDoctor.getHospital().getId());
-        return updatedDto;
+        return doctorMapper.toDto(updatedDoctor);
     }
 
     @Override
@@ -98,4 +125,40 @@ public class DoctorServiceImpl implements DoctorService {
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor", "id", id));
         doctorRepository.delete(doctor);
     }
+
+    @Override
+    public List<DoctorAvailabilityDto> getAvailability(Long doctorId, LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(6);
+        if (end.isBefore(start) || ChronoUnit.DAYS.between(start, end) >= maxAvailabilityDays) {
+            throw new APIException(HttpStatus.BAD_REQUEST,
+                    "Availability range must be between 1 and " + maxAvailabilityDays + " days.");
+        }
+
+        List<DoctorAvailabilityDto> availability = doctorCalendarIndex.availability(doctorId, start, end);
+        if (availability == null) {
+            throw new ResourceNotFoundException("Doctor", "id", doctorId);
+        }
+        return availability;
+    }
+
+    @Override
+    public DoctorSlotDto findFirstAvailable(String specialization, Long hospitalId, LocalDate from) {
+        DoctorSlotDto slot = doctorCalendarIndex.firstAvailable(specialization, hospitalId,
+                from != null ? from : LocalDate.now(), maxAvailabilityDays);
+        if (slot == null) {
+            throw new APIException(HttpStatus.NOT_FOUND,
+                    "No " + specialization + " doctor is available in the next " + maxAvailabilityDays + " days.");
+        }
+        return slot;
+    }
+
+    @Override
+    public List<DoctorDto> searchDoctors(String query, Long hospitalId, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new APIException(HttpStatus.BAD_REQUEST, "Search query must not be empty.");
+        }
+        return doctorSearchIndex.search(query, hospitalId,
+                limit == null || limit < 1 ? 10 : Math.min(limit, maxSearchResults));
+    }
 }
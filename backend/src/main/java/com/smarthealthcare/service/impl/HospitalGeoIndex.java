@@ -0,0 +1,191 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.repository.HospitalLocation;
+import com.smarthealthcare.repository.HospitalRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory grid index over hospital coordinates. Each hospital is placed in a
+ * fixed-size latitude/longitude cell, so a radius query only visits the cells
+ * covering its bounding box and runs haversine on those candidates. Each
+ * entry also carries the hospital's free bed count, so "nearest with free
+ * beds" is answered without touching the database.
+ */
+@Component
+public class HospitalGeoIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371;
+
+    private final HospitalRepository hospitalRepository;
+    private final double cellDegrees;
+    private final int lonCells;
+
+    private final Map<Long, Point> points = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, Point>> cells = new ConcurrentHashMap<>();
+
+    public HospitalGeoIndex(HospitalRepository hospitalRepository,
+            @Value("${app.geo-index.cell-degrees:0.25}") double cellDegrees) {
+        this.hospitalRepository = hospitalRepository;
+        this.cellDegrees = cellDegrees;
+        this.lonCells = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<HospitalLocation> locations = hospitalRepository.findAllProjectedBy();
+        synchronized (this) {
+            points.clear();
+            cells.clear();
+            for (HospitalLocation location : locations) {
+                put(location.getId(), location.getLatitude(), location.getLongitude(),
+                        location.getAvailableBeds());
+            }
+        }
+    }
+
+    public synchronized void put(Long id, Double latitude, Double longitude, int availableBeds) {
+        remove(id);
+        if (latitude == null || longitude == null) {
+            return;
+        }
+        Point point = new Point(id, latitude, longitude, new AtomicInteger(availableBeds));
+        points.put(id, point);
+        cells.computeIfAbsent(cellKey(latCell(latitude), lonCell(longitude)), k -> new ConcurrentHashMap<>())
+                .put(id, point);
+    }
+
+    public synchronized void remove(Long id) {
+        Point old = points.remove(id);
+        if (old == null) {
+            return;
+        }
+        long key = cellKey(latCell(old.latitude()), lonCell(old.longitude()));
+        Map<Long, Point> cell = cells.get(key);
+        if (cell != null) {
+            cell.remove(id);
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Applies an admission (negative) or discharge (positive) that was made
+     * with a relative update; deltas commute, so commit order does not matter.
+     */
+    public void adjustBeds(Long id, int delta) {
+        Point point = points.get(id);
+        if (point != null) {
+            point.availableBeds().addAndGet(delta);
+        }
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Returns hospitals within {@code radius} km of the given point, nearest
+     * first. A {@code limit} of zero or less returns every match.
+     */
+    public List<Match> findWithin(double lat, double lon, double radius, int limit) {
+        return findWithin(lat, lon, radius, 0, limit);
+    }
+
+    /**
+     * Same as {@link #findWithin(double, double, double, int)}, keeping only
+     * hospitals with at least {@code minBeds} free beds when it is positive.
+     */
+    public List<Match> findWithin(double lat, double lon, double radius, int minBeds, int limit) {
+        // bounding box of the circle on the same sphere calculateDistance uses
+        double angle = radius / EARTH_RADIUS_KM;
+        double latDelta = Math.toDegrees(angle);
+        double minLat = Math.max(-90, lat - latDelta);
+        double maxLat = Math.min(90, lat + latDelta);
+
+        // a circle around a pole spans every longitude
+        boolean allLongitudes = lat - latDelta <= -90 || lat + latDelta >= 90;
+        double lonDelta = allLongitudes ? 180
+                : Math.toDegrees(Math.asin(Math.sin(angle) / Math.cos(Math.toRadians(lat))));
+
+        int fromLatCell = latCell(minLat);
+        int toLatCell = latCell(maxLat);
+        int fromLonCell = allLongitudes ? 0 : lonCell(lon - lonDelta);
+        int lonSpan = allLongitudes ? lonCells : Math.min(lonCells, (int) Math.ceil(2 * lonDelta / cellDegrees) + 1);
+
+        List<Match> matches = new ArrayList<>();
+        long cellsToVisit = (long) (toLatCell - fromLatCell + 1) * lonSpan;
+        if (cellsToVisit > cells.size()) {
+            // Radius covers more cells than are populated, walk the occupied ones instead
+            for (Map<Long, Point> cell : cells.values()) {
+                collect(cell, lat, lon, radius, minBeds, matches);
+            }
+        } else {
+            for (int latCell = fromLatCell; latCell <= toLatCell; latCell++) {
+                for (int i = 0; i < lonSpan; i++) {
+                    Map<Long, Point> cell = cells.get(cellKey(latCell, Math.floorMod(fromLonCell + i, lonCells)));
+                    if (cell != null) {
+                        collect(cell, lat, lon, radius, minBeds, matches);
+                    }
+                }
+            }
+        }
+
+        matches.sort(Comparator.comparingDouble(Match::distance));
+        if (limit > 0 && matches.size() > limit) {
+            return new ArrayList<>(matches.subList(0, limit));
+        }
+        return matches;
+    }
+
+    private void collect(Map<Long, Point> cell, double lat, double lon, double radius, int minBeds,
+            List<Match> matches) {
+        for (Point point : cell.values()) {
+            if (minBeds > 0 && point.availableBeds().get() < minBeds) {
+                continue;
+            }
+            double distance = calculateDistance(lat, lon, point.latitude(), point.longitude());
+            if (distance <= radius) {
+                matches.add(new Match(point.id(), distance));
+            }
+        }
+    }
+
+    private int latCell(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private int lonCell(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), lonCells);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+
+    public static double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                        * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return EARTH_RADIUS_KM * c; // convert to kilometers
+    }
+
+    private record Point(Long id, double latitude, double longitude, AtomicInteger availableBeds) {
+    }
+
+    public record Match(Long id, double distance) {
+    }
+}
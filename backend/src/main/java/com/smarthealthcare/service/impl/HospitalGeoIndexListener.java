@@ -0,0 +1,57 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.entity.Hospital;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps {@link HospitalGeoIndex} in step with every persisted change to a
+ * hospital, including the bulk {@code saveAll} path. Changes reach the index
+ * only once their transaction commits, so a rollback leaves no trace there.
+ */
+@Component
+public class HospitalGeoIndexListener {
+
+    private final HospitalGeoIndex hospitalGeoIndex;
+
+    // lazy: Hibernate creates this listener while building the EntityManagerFactory
+    // the index's repository depends on
+    public HospitalGeoIndexListener(@Lazy HospitalGeoIndex hospitalGeoIndex) {
+        this.hospitalGeoIndex = hospitalGeoIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Hospital hospital) {
+        // the values as flushed; the entity may change again before the commit
+        Long id = hospital.getId();
+        Double latitude = hospital.getLatitude();
+        Double longitude = hospital.getLongitude();
+        int availableBeds = hospital.getAvailableBeds();
+        afterCommit(() -> hospitalGeoIndex.put(id, latitude, longitude, availableBeds));
+    }
+
+    @PostRemove
+    public void onRemove(Hospital hospital) {
+        Long id = hospital.getId();
+        afterCommit(() -> hospitalGeoIndex.remove(id));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
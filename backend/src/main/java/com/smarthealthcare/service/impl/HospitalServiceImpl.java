@@ -1,46 +1,83 @@
 package com.smarthealthcare.service.impl;
 
+import com.smarthealthcare.dto.BedAvailabilityDto;
+import com.smarthealthcare.dto.CursorPage;
 import com.smarthealthcare.dto.HospitalDto;
 import com.smarthealthcare.entity.Hospital;
+import com.smarthealthcare.exception.APIException;
 import com.smarthealthcare.exception.ResourceNotFoundException;
+import com.smarthealthcare.mapper.HospitalMapper;
 import com.smarthealthcare.repository.HospitalRepository;
 import com.smarthealthcare.service.HospitalService;
-import org.modelmapper.ModelMapper;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed("healthcare.service")
 public class HospitalServiceImpl implements HospitalService {
 
     private HospitalRepository hospitalRepository;
-    private ModelMapper modelMapper;
-
-    public HospitalServiceImpl(HospitalRepository hospitalRepository, ModelMapper modelMapper) {
+    private HospitalGeoIndex hospitalGeoIndex;
+    private ReferenceDataCache referenceDataCache;
+    private ChangeEventBroadcaster changeEventBroadcaster;
+    private HospitalMapper hospitalMapper;
+
+    public HospitalServiceImpl(HospitalRepository hospitalRepository, HospitalGeoIndex hospitalGeoIndex,
+            ReferenceDataCache referenceDataCache, ChangeEventBroadcaster changeEventBroadcaster,
+            HospitalMapper hospitalMapper) {
         this.hospitalRepository = hospitalRepository;
-        this.modelMapper = modelMapper;
+        this.hospitalGeoIndex = hospitalGeoIndex;
+        this.referenceDataCache = referenceDataCache;
+        this.changeEventBroadcaster = changeEventBroadcaster;
+        this.hospitalMapper = hospitalMapper;
     }
 
     @Override
     public HospitalDto createHospital(HospitalDto hospitalDto) {
-        Hospital hospital = modelMapper.map(hospitalDto, Hospital.class);
+        Hospital hospital = hospitalMapper.toEntity(hospitalDto);
         Hospital savedHospital = hospitalRepository.save(hospital);
-        return modelMapper.map(savedHospital, HospitalDto.class);
+        publishBedChange(savedHospital);
+        return hospitalMapper.toDto(savedHospital);
     }
 
     @Override
     public HospitalDto getHospitalById(Long id) {
-        Hospital hospital = hospitalRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Hospital", "id", id));
-        return modelMapper.map(hospital, HospitalDto.class);
+        return referenceDataCache.hospital(id, () -> {
+            Hospital hospital = hospitalRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Hospital", "id", id));
+            return hospitalMapper.toDto(hospital);
+        });
     }
 
     @Override
-    public List<HospitalDto> getAllHospitals() {
-        List<Hospital> hospitals = hospitalRepository.findAll();
-        return hospitals.stream().map((hospital) -> modelMapper.map(hospital, HospitalDto.class))
-                .collect(Collectors.toList());
+    public CursorPage<HospitalDto> getAllHospitals(Long after, int size) {
+        return referenceDataCache.hospitalPage(after, size, () -> {
+            List<Hospital> hospitals = hospitalRepository.findByIdGreaterThanOrderByIdAsc(
+                    after == null ? 0L : after, Limit.of(size + 1));
+            return CursorPage.of(hospitals, size, Hospital::getId, hospitalMapper::toDto);
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllHospitals(Consumer<HospitalDto> consumer) {
+        try (Stream<HospitalDto> hospitals = hospitalRepository.streamAll()) {
+            hospitals.forEach(consumer);
+        }
     }
 
     @Override
@@ -56,7 +93,8 @@ public class HospitalServiceImpl implements HospitalService {
         hospital.setAvailableBeds(hospitalDto.getAvailableBeds());
 
         Hospital updatedHospital = hospitalRepository.save(hospital);
-        return modelMapper.map(updatedHospital, HospitalDto.class);
+        publishBedChange(updatedHospital);
+        return hospitalMapper.toDto(updatedHospital);
     }
 
     @Override
@@ -66,35 +104,113 @@ public class HospitalServiceImpl implements HospitalService {
         hospitalRepository.delete(hospital);
     }
 
+    // uncached, so read-only and served by a replica when there is one; rows the replica
+    // does not have yet are left out like any hospital the index no longer matches
     @Override
-    public List<HospitalDto> findNearestHospitals(double lat, double lon, double radius) {
-        List<Hospital> hospitals = hospitalRepository.findAll();
-        return hospitals.stream()
-                .filter(hospital -> calculateDistance(lat, lon, hospital.getLatitude(),
-                        hospital.getLongitude()) <= radius)
-                .map(hospital -> modelMapper.map(hospital, HospitalDto.class))
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<HospitalDto> findNearestHospitals(double lat, double lon, double radius, Integer limit) {
+        return loadInIndexOrder(hospitalGeoIndex.findWithin(lat, lon, radius, limit == null ? 0 : limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<HospitalDto> findNearestWithFreeBeds(double lat, double lon, double radius, int minBeds,
+            Integer limit) {
+        int beds = Math.max(1, minBeds);
+        int wanted = limit == null ? 0 : Math.max(0, limit);
+        // the index may trail a just-committed admission by a moment, so the loaded
+        // rows are filtered again and the index asked for more until the limit is met
+        for (int fetch = wanted; ; fetch *= 2) {
+            List<HospitalGeoIndex.Match> matches = hospitalGeoIndex.findWithin(lat, lon, radius, beds, fetch);
+            List<HospitalDto> hospitals = loadInIndexOrder(matches);
+            hospitals.removeIf(hospital -> hospital.getAvailableBeds() < beds);
+            if (wanted == 0 || matches.size() < fetch) {
+                return hospitals;
+            }
+            if (hospitals.size() >= wanted) {
+                return new ArrayList<>(hospitals.subList(0, wanted));
+            }
+        }
     }
 
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // Radius of the earth
+    @Override
+    @Transactional
+    public HospitalDto admitPatients(Long id, int count) {
+        validateBedCount(count);
+        if (hospitalRepository.admitPatients(id, count) == 0) {
+            Hospital hospital = hospitalRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Hospital", "id", id));
+            throw new APIException(HttpStatus.CONFLICT,
+                    "Only " + hospital.getAvailableBeds() + " beds are available at this hospital.");
+        }
+        return bedsChanged(id, -count);
+    }
 
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                        * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c; // convert to kilometers
+    @Override
+    @Transactional
+    public HospitalDto dischargePatients(Long id, int count) {
+        validateBedCount(count);
+        if (hospitalRepository.dischargePatients(id, count) == 0) {
+            Hospital hospital = hospitalRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Hospital", "id", id));
+            throw new APIException(HttpStatus.CONFLICT, "Only " + (hospital.getTotalBeds()
+                    - hospital.getAvailableBeds()) + " beds are occupied at this hospital.");
+        }
+        return bedsChanged(id, count);
+    }
+
+    private void validateBedCount(int count) {
+        if (count < 1) {
+            throw new APIException(HttpStatus.BAD_REQUEST, "Bed count must be at least 1.");
+        }
+    }
+
+    // bulk updates skip the entity listeners, so the index and cache are told once the change commits
+    private HospitalDto bedsChanged(Long id, int delta) {
+        Hospital hospital = hospitalRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Hospital", "id", id));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                hospitalGeoIndex.adjustBeds(id, delta);
+                referenceDataCache.hospitalChanged(id);
+                publishBedChange(hospital);
+            }
+        });
+        return hospitalMapper.toDto(hospital);
+    }
+
+    private void publishBedChange(Hospital hospital) {
+        changeEventBroadcaster.publish(ChangeEventBroadcaster.HOSPITAL_BEDS, "beds",
+                new BedAvailabilityDto(hospital.getId(), hospital.getTotalBeds(), hospital.getAvailableBeds()));
+    }
+
+    private List<HospitalDto> loadInIndexOrder(List<HospitalGeoIndex.Match> matches) {
+        if (matches.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Hospital> hospitals = hospitalRepository
+                .findAllById(matches.stream().map(HospitalGeoIndex.Match::id).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Hospital::getId, Function.identity()));
+
+        // Keep the index's distance ordering; skip ids removed since the lookup
+        return matches.stream()
+                .map(match -> hospitals.get(match.id()))
+                .filter(Objects::nonNull)
+                .map(hospitalMapper::toDto)
+                .collect(Collectors.toList());
     }
 
     @Override
     public List<HospitalDto> createHospitals(List<HospitalDto> hospitalDtos) {
         List<Hospital> hospitals = hospitalDtos.stream()
-                .map(hospitalDto -> modelMapper.map(hospitalDto, Hospital.class))
+                .map(hospitalMapper::toEntity)
                 .collect(Collectors.toList());
         List<Hospital> savedHospitals = hospitalRepository.saveAll(hospitals);
-        return savedHospitals.stream().map(hospital -> modelMapper.map(hospital, HospitalDto.class))
+        savedHospitals.forEach(this::publishBedChange);
+        return savedHospitals.stream().map(hospitalMapper::toDto)
                 .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,127 @@
+package com.smarthealthcare.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads an import file one row at a time, either CSV with a header row or
+ * newline-delimited JSON objects. Nothing beyond the current line is held in
+ * memory. CSV fields may be double-quoted (with "" for a quote) but may not
+ * span lines; empty CSV fields are left out of the row.
+ */
+class ImportRowReader {
+
+    private static final TypeReference<Map<String, Object>> ROW_TYPE = new TypeReference<>() {
+    };
+
+    private final BufferedReader reader;
+    private final boolean csv;
+    private final ObjectMapper objectMapper;
+    private List<String> header;
+    private long line;
+
+    ImportRowReader(BufferedReader reader, boolean csv, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.csv = csv;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * The next non-blank row, or null at the end of the input. A row that
+     * cannot be parsed comes back with its error set and no values.
+     */
+    Row next() {
+        try {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                if (!csv) {
+                    return parseJson(text);
+                }
+                if (header == null) {
+                    header = parseCsv(stripBom(text)).stream().map(String::trim).toList();
+                    continue;
+                }
+                return toCsvRow(parseCsv(text));
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Row parseJson(String text) {
+        try {
+            return new Row(line, objectMapper.readValue(text, ROW_TYPE), null);
+        } catch (JsonProcessingException e) {
+            return new Row(line, null, "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Row toCsvRow(List<String> fields) {
+        if (fields == null) {
+            return new Row(line, null, "Unterminated quoted field.");
+        }
+        if (fields.size() != header.size()) {
+            return new Row(line, null, "Expected " + header.size() + " fields but found " + fields.size() + ".");
+        }
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            if (!fields.get(i).isEmpty()) {
+                values.put(header.get(i), fields.get(i));
+            }
+        }
+        return new Row(line, values, null);
+    }
+
+    // null when a quoted field is not closed on this line
+    private static List<String> parseCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String stripBom(String text) {
+        return text.startsWith("\uFEFF") ? text.substring(1) : text;
+    }
+
+    record Row(long line, Map<String, Object> values, String error) {
+    }
+}
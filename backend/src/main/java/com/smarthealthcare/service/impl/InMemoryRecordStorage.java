@@ -0,0 +1,61 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.service.RecordStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps files on the heap; for tests and offline runs of the ingest path.
+ * {@code app.storage.memory.latency-ms} makes every call wait first, standing
+ * in for the round trip to a remote store when reproducing a slow upstream.
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "memory")
+public class InMemoryRecordStorage implements RecordStorage {
+
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+    private final String publicBaseUrl;
+    private final long latencyMillis;
+
+    public InMemoryRecordStorage(@Value("${app.storage.public-base-url:http://localhost:8080}") String publicBaseUrl,
+            @Value("${app.storage.memory.latency-ms:0}") long latencyMillis) {
+        this.publicBaseUrl = publicBaseUrl;
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public String store(String key, Path file) throws IOException {
+        awaitUpstream();
+        if (!files.containsKey(key)) {
+            files.put(key, Files.readAllBytes(file));
+        }
+        return publicBaseUrl + "/api/medical-records/files/" + key;
+    }
+
+    @Override
+    public Resource load(String key) {
+        awaitUpstream();
+        byte[] content = files.get(key);
+        return content != null ? new ByteArrayResource(content) : null;
+    }
+
+    private void awaitUpstream() {
+        if (latencyMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
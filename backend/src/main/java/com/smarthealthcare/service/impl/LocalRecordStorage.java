@@ -0,0 +1,74 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.service.RecordStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Keeps files on local disk, spread over two levels of directories named by
+ * the first characters of the key so no single directory grows too large.
+ * Files are hard-linked from the staging area when both live on the same
+ * filesystem, so storing costs no copy.
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local")
+public class LocalRecordStorage implements RecordStorage {
+
+    private final Path root;
+    private final String publicBaseUrl;
+
+    public LocalRecordStorage(@Value("${app.storage.local.dir:data/record-storage}") String dir,
+            @Value("${app.storage.public-base-url:http://localhost:8080}") String publicBaseUrl) throws IOException {
+        this.root = Files.createDirectories(Path.of(dir));
+        this.publicBaseUrl = publicBaseUrl;
+    }
+
+    @Override
+    public String store(String key, Path file) throws IOException {
+        Path target = pathOf(key);
+        if (target == null) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), key, ".part");
+            try {
+                Files.delete(temp);
+                try {
+                    Files.createLink(temp, file);
+                } catch (UnsupportedOperationException | IOException e) {
+                    Files.copy(file, temp);
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // stored concurrently under the same key
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        return publicBaseUrl + "/api/medical-records/files/" + key;
+    }
+
+    @Override
+    public Resource load(String key) {
+        Path path = pathOf(key);
+        return path != null && Files.isRegularFile(path) ? new FileSystemResource(path) : null;
+    }
+
+    // null for keys that could escape the storage root
+    private Path pathOf(String key) {
+        if (key.length() < 4 || !key.matches("[A-Za-z0-9_-][A-Za-z0-9._-]*")) {
+            return null;
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+}
@@ -0,0 +1,199 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.entity.MedicalRecord;
+import com.smarthealthcare.entity.MedicalRecordStatus;
+import com.smarthealthcare.exception.APIException;
+import com.smarthealthcare.repository.MedicalRecordRepository;
+import com.smarthealthcare.service.RecordStorage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the storage upload and OCR for an accepted medical record on two
+ * bounded worker pools, then moves the record to READY or FAILED. The number
+ * of records in flight is capped, so an upload burst is turned away with a
+ * 503 instead of piling up in memory.
+ */
+@Component
+public class MedicalRecordIngestionPipeline {
+
+    private final MedicalRecordRepository medicalRecordRepository;
+    private final RecordStorage recordStorage;
+    private final OcrService ocrService;
+    private final UploadStagingArea uploadStagingArea;
+
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final ExecutorService storageExecutor;
+    private final ExecutorService ocrExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.storage.max-attempts:3}")
+    private int storageAttempts;
+
+    @Value("${app.storage.retry-backoff-ms:500}")
+    private long storageBackoffMillis;
+
+    public MedicalRecordIngestionPipeline(MedicalRecordRepository medicalRecordRepository,
+            RecordStorage recordStorage,
+            OcrService ocrService,
+            UploadStagingArea uploadStagingArea,
+            @Value("${app.ingestion.max-in-flight:64}") int maxInFlight,
+            @Value("${app.ingestion.storage-threads:4}") int storageThreads,
+            @Value("${app.ingestion.ocr-threads:0}") int ocrThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            MeterRegistry meterRegistry) {
+        this.medicalRecordRepository = medicalRecordRepository;
+        this.recordStorage = recordStorage;
+        this.ocrService = ocrService;
+        this.uploadStagingArea = uploadStagingArea;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.meterRegistry = meterRegistry;
+        // uploads mostly wait on the network; with virtual threads max-in-flight is their only bound
+        this.storageExecutor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("record-storage-", 1).factory())
+                : Executors.newFixedThreadPool(storageThreads, named("record-storage"));
+        // OCR is CPU-bound native code, so it keeps a fixed pool of platform threads either way
+        this.ocrExecutor = Executors.newFixedThreadPool(
+                ocrThreads > 0 ? ocrThreads : Runtime.getRuntime().availableProcessors(), named("record-ocr"));
+    }
+
+    /**
+     * Reserves a slot for one record, failing fast when the pipeline is full.
+     * Every successful call must be followed by {@link #submit} or {@link #release}.
+     */
+    public void reserve() {
+        if (!inFlight.tryAcquire()) {
+            throw new APIException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Medical record ingestion is busy, please retry shortly.");
+        }
+    }
+
+    public void release() {
+        inFlight.release();
+    }
+
+    public int inFlightCount() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    /**
+     * Processes a staged file for a record; the staging reference and the
+     * reserved slot are released once both the upload and OCR have finished
+     * and the record is READY or FAILED, even when one of them fails early.
+     */
+    public CompletableFuture<Void> submit(Long recordId, UploadStagingArea.StagedFile staged, String storageKey) {
+        CompletableFuture<String> upload = CompletableFuture.supplyAsync(
+                () -> store(storageKey, staged.path()), storageExecutor);
+        CompletableFuture<String> ocr = CompletableFuture.supplyAsync(
+                () -> ocrService.extractTextFromImage(staged.path()), ocrExecutor);
+
+        // both branches read the staged file and hold the permit, so nothing is settled until both have finished
+        return CompletableFuture.allOf(upload, ocr).handle((ignored, ex) -> {
+            try {
+                if (ex == null) {
+                    complete(recordId, upload.join(), ocr.join());
+                } else {
+                    fail(recordId, ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                }
+            } catch (RuntimeException e) {
+                fail(recordId, e);
+            } finally {
+                uploadStagingArea.release(staged.hash());
+                inFlight.release();
+            }
+            return null;
+        });
+    }
+
+    // transient storage errors are retried with exponential backoff
+    private String store(String key, Path file) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            String url = storeWithRetries(key, file);
+            outcome = "success";
+            return url;
+        } finally {
+            sample.stop(meterRegistry.timer("healthcare.storage.upload",
+                    "backend", recordStorage.getClass().getSimpleName(), "outcome", outcome));
+        }
+    }
+
+    private String storeWithRetries(String key, Path file) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return recordStorage.store(key, file);
+            } catch (IOException | RuntimeException e) {
+                meterRegistry.counter("healthcare.storage.upload.errors",
+                        "backend", recordStorage.getClass().getSimpleName()).increment();
+                if (attempt >= storageAttempts) {
+                    throw new RuntimeException("Image upload failed: " + e.getMessage(), e);
+                }
+            }
+            try {
+                Thread.sleep(storageBackoffMillis << (attempt - 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Image upload failed: interrupted", e);
+            }
+        }
+    }
+
+    private void complete(Long recordId, String fileUrl, String extractedText) {
+        medicalRecordRepository.findById(recordId).ifPresent(record -> {
+            record.setFileUrl(fileUrl);
+            record.setExtractedText(extractedText);
+            record.setStatus(MedicalRecordStatus.READY);
+            medicalRecordRepository.save(record);
+        });
+    }
+
+    private void fail(Long recordId, Throwable cause) {
+        medicalRecordRepository.findById(recordId).ifPresent(record -> {
+            record.setStatus(MedicalRecordStatus.FAILED);
+            String reason = String.valueOf(cause.getMessage());
+            record.setFailureReason(reason.length() > 255 ? reason.substring(0, 255) : reason);
+            medicalRecordRepository.save(record);
+        });
+    }
+
+    // content of records still pending at shutdown only lived in memory; records
+    // from before asynchronous ingestion were migrated to READY and have no hash
+    @EventListener(ApplicationReadyEvent.class)
+    public void failAbandonedRecords() {
+        medicalRecordRepository.failUnfinishedIngestions("Processing interrupted by a restart, please upload again.");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        storageExecutor.shutdown();
+        ocrExecutor.shutdown();
+    }
+
+    private static ThreadFactory named(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,246 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.dto.MedicalRecordSearchHitDto;
+import com.smarthealthcare.repository.MedicalRecordRepository;
+import com.smarthealthcare.repository.MedicalRecordText;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Lucene index over the OCR text of medical records, kept on local disk.
+ * Records are indexed one at a time as they are saved (see
+ * {@link MedicalRecordSearchIndexListener}) and become searchable right away;
+ * the index is committed to disk periodically and rebuilt from the database
+ * at startup when its document count no longer matches.
+ */
+@Component
+public class MedicalRecordSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(MedicalRecordSearchIndex.class);
+
+    private static final String ID = "id";
+    private static final String PATIENT_ID = "patientId";
+    private static final String UPLOAD_DATE = "uploadDate";
+    private static final String TEXT = "text";
+
+    private final MedicalRecordRepository medicalRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final FSDirectory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final ScheduledExecutorService committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "record-index-commit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.search.snippet-passages:2}")
+    private int snippetPassages;
+
+    public MedicalRecordSearchIndex(MedicalRecordRepository medicalRecordRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.search.index-dir:data/medical-record-index}") String indexDir,
+            @Value("${app.search.commit-interval-seconds:30}") long commitIntervalSeconds) throws IOException {
+        this.medicalRecordRepository = medicalRecordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.directory = FSDirectory.open(Path.of(indexDir));
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, null);
+        committer.scheduleWithFixedDelay(this::commit, commitIntervalSeconds, commitIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfStale() {
+        if (writer.getDocStats().numDocs != medicalRecordRepository.countByExtractedTextIsNotNull()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Re-indexes every record with extracted text. Returns the number indexed.
+     */
+    public long rebuild() {
+        // a lock rather than synchronized: the rebuild streams from JDBC and would pin a virtual thread
+        rebuildLock.lock();
+        try {
+            return rebuildLocked();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private long rebuildLocked() {
+        long indexed = transactionTemplate.execute(status -> {
+            try (Stream<MedicalRecordText> records = medicalRecordRepository.streamSearchable()) {
+                writer.deleteAll();
+                long count = 0;
+                for (MedicalRecordText record : (Iterable<MedicalRecordText>) records::iterator) {
+                    writer.addDocument(toDocument(record.getId(), record.getPatientId(), record.getUploadDate(),
+                            record.getExtractedText()));
+                    count++;
+                }
+                return count;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        commit();
+        refresh();
+        return indexed;
+    }
+
+    public void index(Long id, Long patientId, LocalDate uploadDate, String extractedText) {
+        try {
+            if (extractedText == null) {
+                writer.deleteDocuments(new Term(ID, id.toString()));
+            } else {
+                writer.updateDocument(new Term(ID, id.toString()),
+                        toDocument(id, patientId, uploadDate, extractedText));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        refresh();
+    }
+
+    public void remove(Long id) {
+        try {
+            writer.deleteDocuments(new Term(ID, id.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        refresh();
+    }
+
+    /**
+     * Best matches for {@code text}, restricted to one patient when
+     * {@code patientId} is given. Supports quoted phrases, +/- and trailing *.
+     */
+    public List<MedicalRecordSearchHitDto> search(String text, Long patientId, int limit) {
+        Query query = new SimpleQueryParser(analyzer, TEXT).parse(text);
+        if (query == null) {
+            // nothing searchable left after analysis, e.g. only stop words
+            return new ArrayList<>();
+        }
+        if (patientId != null) {
+            query = new BooleanQuery.Builder()
+                    .add(query, BooleanClause.Occur.MUST)
+                    .add(new TermQuery(new Term(PATIENT_ID, patientId.toString())), BooleanClause.Occur.FILTER)
+                    .build();
+        }
+
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            TopDocs topDocs = searcher.search(query, limit);
+            String[] snippets = UnifiedHighlighter.builder(searcher, analyzer).build()
+                    .highlight(TEXT, query, topDocs, snippetPassages);
+
+            List<MedicalRecordSearchHitDto> hits = new ArrayList<>();
+            for (int i = 0; i < topDocs.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                Document document = searcher.storedFields().document(scoreDoc.doc);
+                hits.add(new MedicalRecordSearchHitDto(
+                        Long.valueOf(document.get(ID)),
+                        Long.valueOf(document.get(PATIENT_ID)),
+                        LocalDate.parse(document.get(UPLOAD_DATE)),
+                        scoreDoc.score,
+                        snippets[i]));
+            }
+            return hits;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (searcher != null) {
+                try {
+                    searcherManager.release(searcher);
+                } catch (IOException ignored) {
+                    // the searcher is closed with the manager
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return writer.getDocStats().numDocs;
+    }
+
+    private Document toDocument(Long id, Long patientId, LocalDate uploadDate, String extractedText) {
+        Document document = new Document();
+        document.add(new StringField(ID, id.toString(), Field.Store.YES));
+        document.add(new StringField(PATIENT_ID, patientId.toString(), Field.Store.YES));
+        document.add(new StoredField(UPLOAD_DATE, uploadDate.toString()));
+        document.add(new TextField(TEXT, extractedText, Field.Store.YES));
+        return document;
+    }
+
+    private void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Medical record index commit failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        committer.shutdown();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+}
@@ -0,0 +1,53 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.entity.MedicalRecord;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Feeds every persisted medical record change into {@link MedicalRecordSearchIndex}
+ * once the surrounding transaction commits.
+ */
+@Component
+public class MedicalRecordSearchIndexListener {
+
+    private final MedicalRecordSearchIndex medicalRecordSearchIndex;
+
+    // lazy for the same reason as HospitalGeoIndexListener
+    public MedicalRecordSearchIndexListener(@Lazy MedicalRecordSearchIndex medicalRecordSearchIndex) {
+        this.medicalRecordSearchIndex = medicalRecordSearchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(MedicalRecord record) {
+        Long id = record.getId();
+        Long patientId = record.getPatient().getId();
+        afterCommit(() -> medicalRecordSearchIndex.index(id, patientId, record.getUploadDate(),
+                record.getExtractedText()));
+    }
+
+    @PostRemove
+    public void onRemove(MedicalRecord record) {
+        Long id = record.getId();
+        afterCommit(() -> medicalRecordSearchIndex.remove(id));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
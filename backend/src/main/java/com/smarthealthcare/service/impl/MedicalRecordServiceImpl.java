@@ -1,40 +1,68 @@
 package com.smarthealthcare.service.impl;
 
+import com.smarthealthcare.dto.CursorPage;
 import com.smarthealthcare.dto.MedicalRecordDto;
+import com.smarthealthcare.dto.MedicalRecordSearchHitDto;
+import com.smarthealthcare.dto.MedicalRecordStatusDto;
 import com.smarthealthcare.entity.MedicalRecord;
+import com.smarthealthcare.entity.MedicalRecordStatus;
 import com.smarthealthcare.entity.User;
+import com.smarthealthcare.exception.APIException;
 import com.smarthealthcare.exception.ResourceNotFoundException;
+import com.smarthealthcare.mapper.MedicalRecordMapper;
 import com.smarthealthcare.repository.MedicalRecordRepository;
 import com.smarthealthcare.repository.UserRepository;
+import com.smarthealthcare.security.AuthenticatedUser;
 import com.smarthealthcare.service.MedicalRecordService;
-import org.modelmapper.ModelMapper;
+import com.smarthealthcare.service.RecordStorage;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed("healthcare.service")
 public class MedicalRecordServiceImpl implements MedicalRecordService {
 
     private MedicalRecordRepository medicalRecordRepository;
     private UserRepository userRepository;
-    private CloudinaryService cloudinaryService;
-    private OcrService ocrService;
-    private ModelMapper modelMapper;
+    private MedicalRecordIngestionPipeline ingestionPipeline;
+    private MedicalRecordSearchIndex medicalRecordSearchIndex;
+    private UploadStagingArea uploadStagingArea;
+    private RecordStorage recordStorage;
+    private MedicalRecordMapper medicalRecordMapper;
+
+    @Value("${app.search.max-results:50}")
+    private int maxSearchResults;
 
     public MedicalRecordServiceImpl(MedicalRecordRepository medicalRecordRepository,
             UserRepository userRepository,
-            CloudinaryService cloudinaryService,
-            OcrService ocrService,
-            ModelMapper modelMapper) {
+            MedicalRecordIngestionPipeline ingestionPipeline,
+            MedicalRecordSearchIndex medicalRecordSearchIndex,
+            UploadStagingArea uploadStagingArea,
+            RecordStorage recordStorage,
+            MedicalRecordMapper medicalRecordMapper) {
         this.medicalRecordRepository = medicalRecordRepository;
         this.userRepository = userRepository;
-        this.cloudinaryService = cloudinaryService;
-        this.ocrService = ocrService;
-        this.modelMapper = modelMapper;
+        this.ingestionPipeline = ingestionPipeline;
+        this.medicalRecordSearchIndex = medicalRecordSearchIndex;
+        this.uploadStagingArea = uploadStagingArea;
+        this.recordStorage = recordStorage;
+        this.medicalRecordMapper = medicalRecordMapper;
     }
 
     @Override
@@ -42,40 +70,142 @@ public class MedicalRecordServiceImpl implements MedicalRecordService {
         User patient = userRepository.findById(patientId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", patientId));
 
-        // Upload to Cloudinary
-        String fileUrl = cloudinaryService.uploadFile(file);
+        ingestionPipeline.reserve();
+        UploadStagingArea.StagedFile staged = null;
+        try {
+            // the multipart temp file is gone once the request ends, stage the content for the workers
+            try (InputStream content = file.getInputStream()) {
+                staged = uploadStagingArea.stage(content);
+            }
+
+            MedicalRecord medicalRecord = new MedicalRecord();
+            medicalRecord.setPatient(patient);
+            medicalRecord.setNotes(notes);
+            medicalRecord.setUploadDate(LocalDate.now());
+            medicalRecord.setContentHash(staged.hash());
+
+            MedicalRecord processed = medicalRecordRepository
+                    .findFirstByContentHashAndStatus(staged.hash(), MedicalRecordStatus.READY).orElse(null);
+            if (processed != null) {
+                // the same file was stored and read before, reuse the results
+                medicalRecord.setFileUrl(processed.getFileUrl());
+                medicalRecord.setExtractedText(processed.getExtractedText());
+                medicalRecord.setStatus(MedicalRecordStatus.READY);
+                MedicalRecord savedRecord = medicalRecordRepository.save(medicalRecord);
+
+                uploadStagingArea.release(staged.hash());
+                ingestionPipeline.release();
+                return medicalRecordMapper.toDto(savedRecord);
+            }
 
-        // Extract Text using OCR
-        String extractedText = ocrService.extractTextFromImage(file);
+            medicalRecord.setStatus(MedicalRecordStatus.PENDING);
+            MedicalRecord savedRecord = medicalRecordRepository.save(medicalRecord);
 
-        MedicalRecord medicalRecord = new MedicalRecord();
-        medicalRecord.setPatient(patient);
-        medicalRecord.setFileUrl(fileUrl);
-        medicalRecord.setExtractedText(extractedText);
-        medicalRecord.setNotes(notes);
-        medicalRecord.setUploadDate(LocalDate.now());
+            MedicalRecordDto savedRecordDto = medicalRecordMapper.toDto(savedRecord);
 
-        MedicalRecord savedRecord = medicalRecordRepository.save(medicalRecord);
+            // Upload to Cloudinary and extract text using OCR, both in the background
+            ingestionPipeline.submit(savedRecord.getId(), staged, storageKey(staged.hash(), file));
 
-        return mapToDto(savedRecord);
+            return savedRecordDto;
+        } catch (IOException | RuntimeException e) {
+            if (staged != null) {
+                uploadStagingArea.release(staged.hash());
+            }
+            ingestionPipeline.release();
+            throw e;
+        }
+    }
+
+    // content-addressed, keeping the extension so the file is served with the right type
+    private static String storageKey(String hash, MultipartFile file) {
+        String extension = StringUtils.getFilenameExtension(file.getOriginalFilename());
+        return extension != null && extension.matches("[A-Za-z0-9]{1,8}")
+                ? hash + "." + extension.toLowerCase()
+                : hash;
     }
 
     @Override
-    public List<MedicalRecordDto> getMedicalRecordsByPatient(Long patientId) {
-        List<MedicalRecord> records = medicalRecordRepository.findByPatientId(patientId);
-        return records.stream().map(this::mapToDto).collect(Collectors.toList());
+    public Resource getMedicalRecordFile(String key) throws IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // identical uploads share one file, so a patient may fetch it through any record of their own
+        if (!isStaff(authentication)) {
+            Long callerId = callerId(authentication);
+            if (callerId == null
+                    || !medicalRecordRepository.existsByPatientIdAndFileUrlEndingWith(callerId, "/" + key)) {
+                throw new APIException(HttpStatus.FORBIDDEN, "You can only download your own medical records.");
+            }
+        }
+        Resource file = recordStorage.load(key);
+        if (file == null) {
+            throw new APIException(HttpStatus.NOT_FOUND, "Medical record file not found.");
+        }
+        return file;
     }
 
     @Override
-    public MedicalRecordDto getMedicalRecordById(Long id) {
+    @Transactional(readOnly = true)
+    public MedicalRecordStatusDto getMedicalRecordStatus(Long id) {
         MedicalRecord record = medicalRecordRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("MedicalRecord", "id", id));
-        return mapToDto(record);
+        return new MedicalRecordStatusDto(record.getId(), record.getStatus(), record.getFailureReason());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<MedicalRecordDto> getMedicalRecordsByPatient(Long patientId, Long after, int size) {
+        List<MedicalRecord> records = medicalRecordRepository.findByPatientIdAndIdGreaterThanOrderByIdAsc(
+                patientId, after == null ? 0L : after, Limit.of(size + 1));
+        return CursorPage.of(records, size, MedicalRecord::getId, medicalRecordMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamMedicalRecordsByPatient(Long patientId, Consumer<MedicalRecordDto> consumer) {
+        try (Stream<MedicalRecordDto> records = medicalRecordRepository.streamByPatientId(patientId)) {
+            records.forEach(consumer);
+        }
+    }
+
+    @Override
+    public List<MedicalRecordSearchHitDto> searchPatientRecords(Long patientId, String query, Integer limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // patients may only search their own records
+        if (!isStaff(authentication) && !patientId.equals(callerId(authentication))) {
+            throw new APIException(HttpStatus.FORBIDDEN, "You can only search your own medical records.");
+        }
+        return medicalRecordSearchIndex.search(validateQuery(query), patientId, resolveLimit(limit));
     }
 
-    private MedicalRecordDto mapToDto(MedicalRecord record) {
-        MedicalRecordDto dto = modelMapper.map(record, MedicalRecordDto.class);
-        dto.setPatientId(record.getPatient().getId());
-        return dto;
+    @Override
+    public List<MedicalRecordSearchHitDto> searchAllRecords(String query, Integer limit) {
+        return medicalRecordSearchIndex.search(validateQuery(query), null, resolveLimit(limit));
+    }
+
+    private static boolean isStaff(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN") || a.getAuthority().equals("ROLE_DOCTOR"));
+    }
+
+    private static Long callerId(Authentication authentication) {
+        return authentication.getPrincipal() instanceof AuthenticatedUser user ? user.getId() : null;
+    }
+
+    private String validateQuery(String query) {
+        if (query == null || query.isBlank()) {
+            throw new APIException(HttpStatus.BAD_REQUEST, "Search query must not be empty.");
+        }
+        return query;
+    }
+
+    private int resolveLimit(Integer limit) {
+        return limit == null || limit < 1 ? 10 : Math.min(limit, maxSearchResults);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MedicalRecordDto getMedicalRecordById(Long id) {
+        MedicalRecord record = medicalRecordRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("MedicalRecord", "id", id));
+        return medicalRecordMapper.toDto(record);
     }
 }
@@ -1,43 +1,240 @@
 package com.smarthealthcare.service.impl;
 
-import net.sourceforge.tess4j.ITesseract;
-import net.sourceforge.tess4j.Tesseract;
-import net.sourceforge.tess4j.TesseractException;
+import com.sun.jna.Pointer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import net.sourceforge.tess4j.ITessAPI.TessBaseAPI;
+import net.sourceforge.tess4j.TessAPI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.FileOutputStream;
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * OCR over a fixed-size pool of Tesseract engines. Each engine keeps its
+ * native handle initialised with the trained data between calls, instead of
+ * loading it again for every image as {@code Tesseract.doOCR} does. Engines
+ * are created on first use (or at startup with {@code app.ocr.warm-up}), so a
+ * machine without the Tesseract native library still boots.
+ */
 @Service
 public class OcrService {
 
-    public String extractTextFromImage(MultipartFile file) {
-        ITesseract tesseract = new Tesseract();
+    private static final Logger logger = LoggerFactory.getLogger(OcrService.class);
 
-        // Set the tessdata path - you need to download trained data
-        // For now, assuming it's in the project root or system path
-        tesseract.setDatapath("src/main/resources/tessdata");
-        tesseract.setLanguage("eng");
+    private final String datapath;
+    private final String language;
+    private final int poolSize;
+    private final long acquireTimeoutMillis;
 
+    private final Semaphore permits;
+    private final Queue<OcrEngine> idleEngines = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder ocrNanos = new LongAdder();
+
+    private final Timer waitTimer;
+    private final Timer recognizedTimer;
+    private final Timer failedTimer;
+
+    @Value("${app.ocr.warm-up:false}")
+    private boolean warmUp;
+
+    public OcrService(@Value("${app.ocr.datapath:src/main/resources/tessdata}") String datapath,
+            @Value("${app.ocr.language:eng}") String language,
+            @Value("${app.ocr.pool-size:0}") int poolSize,
+            @Value("${app.ocr.acquire-timeout-ms:30000}") long acquireTimeoutMillis,
+            MeterRegistry meterRegistry) {
+        this.datapath = datapath;
+        this.language = language;
+        this.poolSize = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.permits = new Semaphore(this.poolSize, true);
+        this.waitTimer = Timer.builder("healthcare.ocr.wait")
+                .description("Time spent waiting for a free OCR engine")
+                .register(meterRegistry);
+        this.recognizedTimer = ocrTimer(meterRegistry, "success");
+        this.failedTimer = ocrTimer(meterRegistry, "failure");
+    }
+
+    public String extractTextFromImage(Path file) {
+        BufferedImage image;
+        try {
+            // decodes straight from the file, no intermediate copy of the encoded bytes
+            image = ImageIO.read(file.toFile());
+        } catch (IOException e) {
+            throw new RuntimeException("Text extraction failed: " + e.getMessage(), e);
+        }
+        if (image == null) {
+            throw new RuntimeException("Text extraction failed: unsupported image format");
+        }
+        return extractText(image);
+    }
+
+    public String extractText(BufferedImage image) {
+        calls.increment();
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new RuntimeException("Text extraction failed: no OCR engine free within "
+                        + acquireTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Text extraction failed: interrupted while waiting for an OCR engine", e);
+        }
+        long waited = System.nanoTime() - waitStart;
+        waitNanos.add(waited);
+        waitTimer.record(waited, TimeUnit.NANOSECONDS);
+        maxWaitNanos.accumulate(waited);
+
+        OcrEngine engine = null;
+        long ocrStart = System.nanoTime();
         try {
-            File convFile = convert(file);
-            String text = tesseract.doOCR(convFile);
-            convFile.delete(); // cleanup
+            engine = idleEngines.poll();
+            if (engine == null) {
+                engine = new OcrEngine(datapath, language);
+            }
+            String text = engine.recognize(image);
+            idleEngines.offer(engine);
+            recognizedTimer.record(System.nanoTime() - ocrStart, TimeUnit.NANOSECONDS);
             return text;
-        } catch (TesseractException | IOException e) {
-            e.printStackTrace();
-            return "Error extracting text: " + e.getMessage();
+        } catch (RuntimeException | Error e) {
+            failures.increment();
+            failedTimer.record(System.nanoTime() - ocrStart, TimeUnit.NANOSECONDS);
+            // an engine that failed mid-call is not trusted again
+            if (engine != null) {
+                engine.close();
+            }
+            throw new RuntimeException("Text extraction failed: " + e.getMessage(), e);
+        } finally {
+            ocrNanos.add(System.nanoTime() - ocrStart);
+            permits.release();
+        }
+    }
+
+    public OcrStats getStats() {
+        long total = calls.sum();
+        long served = Math.max(1, total - timeouts.sum());
+        return new OcrStats(
+                total,
+                failures.sum(),
+                timeouts.sum(),
+                waitNanos.sum() / 1_000_000.0 / served,
+                maxWaitNanos.get() / 1_000_000.0,
+                ocrNanos.sum() / 1_000_000.0 / served,
+                poolSize,
+                idleEngines.size());
+    }
+
+    private static Timer ocrTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("healthcare.ocr.duration")
+                .description("Time Tesseract spends on one image")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmUp) {
+            return;
+        }
+        List<OcrEngine> engines = new ArrayList<>();
+        try {
+            while (engines.size() < poolSize) {
+                engines.add(new OcrEngine(datapath, language));
+            }
+        } catch (RuntimeException | Error e) {
+            logger.warn("OCR engine warm-up failed after {} of {} engines", engines.size(), poolSize, e);
         }
+        idleEngines.addAll(engines);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        OcrEngine engine;
+        while ((engine = idleEngines.poll()) != null) {
+            engine.close();
+        }
+    }
+
+    public record OcrStats(long calls, long failures, long timeouts, double avgWaitMillis,
+            double maxWaitMillis, double avgOcrMillis, int poolSize, int idleEngines) {
     }
 
-    private File convert(MultipartFile file) throws IOException {
-        File convFile = new File(file.getOriginalFilename());
-        convFile.createNewFile();
-        FileOutputStream fos = new FileOutputStream(convFile);
-        fos.write(file.getBytes());
-        fos.close();
-        return convFile;
+    /**
+     * One native Tesseract handle, used by a single thread at a time.
+     */
+    private static final class OcrEngine {
+
+        private final TessAPI api = TessAPI.INSTANCE;
+        private final TessBaseAPI handle;
+
+        OcrEngine(String datapath, String language) {
+            handle = api.TessBaseAPICreate();
+            if (api.TessBaseAPIInit3(handle, datapath, language) != 0) {
+                api.TessBaseAPIDelete(handle);
+                throw new IllegalStateException("Could not initialise Tesseract with data at " + datapath);
+            }
+        }
+
+        String recognize(BufferedImage image) {
+            // 8-bit grayscale keeps the pixel layout uniform whatever the upload's colour model is
+            BufferedImage gray = image;
+            if (image.getType() != BufferedImage.TYPE_BYTE_GRAY) {
+                gray = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+                Graphics2D graphics = gray.createGraphics();
+                graphics.drawImage(image, 0, 0, null);
+                graphics.dispose();
+            }
+            byte[] pixels = ((DataBufferByte) gray.getRaster().getDataBuffer()).getData();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(pixels.length);
+            buffer.put(pixels).flip();
+
+            try {
+                api.TessBaseAPISetImage(handle, buffer, gray.getWidth(), gray.getHeight(), 1, gray.getWidth());
+                Pointer text = api.TessBaseAPIGetUTF8Text(handle);
+                if (text == null) {
+                    return "";
+                }
+                try {
+                    return text.getString(0, StandardCharsets.UTF_8.name());
+                } finally {
+                    api.TessDeleteText(text);
+                }
+            } finally {
+                api.TessBaseAPIClear(handle);
+            }
+        }
+
+        void close() {
+            api.TessBaseAPIEnd(handle);
+            api.TessBaseAPIDelete(handle);
+        }
     }
 }
@@ -0,0 +1,118 @@
+package com.smarthealthcare.service.impl;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache that loads missing or expired values on read.
+ * A value loaded while an invalidation ran is handed to the caller but not
+ * kept, so a write can never be overtaken by the read that raced it.
+ */
+public class ReadThroughCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMillis;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ReadThroughCache(String name, int maxSize, long ttlMillis) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            if (entry.expiresAt() > System.currentTimeMillis()) {
+                hits.increment();
+                return entry.value();
+            }
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+        }
+
+        misses.increment();
+        long loadedAt = generation.get();
+        V value = loader.get();
+        if (value != null && generation.get() == loadedAt) {
+            if (entries.size() >= maxSize) {
+                evict();
+            }
+            entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+        }
+        return value;
+    }
+
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        if (entries.remove(key) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public void invalidateIf(BiPredicate<K, V> predicate) {
+        generation.incrementAndGet();
+        entries.entrySet().removeIf(e -> {
+            boolean matches = predicate.test(e.getKey(), e.getValue().value());
+            if (matches) {
+                invalidations.increment();
+            }
+            return matches;
+        });
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        invalidations.add(entries.size());
+        entries.clear();
+    }
+
+    public Stats getStats() {
+        return new Stats(name, entries.size(), maxSize, hits.sum(), misses.sum(), evictions.sum(),
+                invalidations.sum());
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> {
+            boolean expired = entry.expiresAt() <= now;
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+        if (entries.size() < maxSize) {
+            return;
+        }
+
+        // still full of live values, drop an arbitrary tenth to make room
+        int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<K> it = entries.keySet().iterator();
+        while (toRemove-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    public record Stats(String name, int size, int maxSize, long hits, long misses, long evictions,
+            long invalidations) {
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.dto.CursorPage;
+import com.smarthealthcare.dto.DoctorDto;
+import com.smarthealthcare.dto.HospitalDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through caches for hospital and doctor reads, which change far less
+ * often than they are listed. {@link ReferenceDataCacheListener} calls the
+ * {@code *Changed} methods on every persisted write, so only the entries a
+ * write can affect are dropped: the entity itself, the pages that list it,
+ * and the last page of each listing, where new rows appear.
+ */
+@Component
+public class ReferenceDataCache {
+
+    private final ReadThroughCache<Long, HospitalDto> hospitals;
+    private final ReadThroughCache<PageKey, CursorPage<HospitalDto>> hospitalPages;
+    private final ReadThroughCache<Long, DoctorDto> doctors;
+    private final ReadThroughCache<PageKey, CursorPage<DoctorDto>> doctorPages;
+
+    public ReferenceDataCache(@Value("${app.reference-cache.max-size:10000}") int maxSize,
+            @Value("${app.reference-cache.ttl-seconds:300}") long ttlSeconds) {
+        long ttlMillis = ttlSeconds * 1000;
+        this.hospitals = new ReadThroughCache<>("hospitals", maxSize, ttlMillis);
+        this.hospitalPages = new ReadThroughCache<>("hospitalPages", maxSize, ttlMillis);
+        this.doctors = new ReadThroughCache<>("doctors", maxSize, ttlMillis);
+        this.doctorPages = new ReadThroughCache<>("doctorPages", maxSize, ttlMillis);
+    }
+
+    public HospitalDto hospital(Long id, Supplier<HospitalDto> loader) {
+        return hospitals.get(id, loader);
+    }
+
+    public CursorPage<HospitalDto> hospitalPage(Long after, int size, Supplier<CursorPage<HospitalDto>> loader) {
+        return hospitalPages.get(new PageKey(null, after, size), loader);
+    }
+
+    public DoctorDto doctor(Long id, Supplier<DoctorDto> loader) {
+        return doctors.get(id, loader);
+    }
+
+    public CursorPage<DoctorDto> doctorPage(Long after, int size, Supplier<CursorPage<DoctorDto>> loader) {
+        return doctorPages.get(new PageKey(null, after, size), loader);
+    }
+
+    public CursorPage<DoctorDto> doctorsByHospitalPage(Long hospitalId, Long after, int size,
+            Supplier<CursorPage<DoctorDto>> loader) {
+        return doctorPages.get(new PageKey(hospitalId, after, size), loader);
+    }
+
+    public void hospitalChanged(Long id) {
+        hospitals.invalidate(id);
+        hospitalPages.invalidateIf((key, page) -> affects(page, id, HospitalDto::getId));
+    }
+
+    public void doctorChanged(Long id, Long hospitalId) {
+        doctors.invalidate(id);
+        // a doctor moving hospitals lands mid-list in the new hospital's pages
+        doctorPages.invalidateIf((key, page) -> affects(page, id, DoctorDto::getId)
+                || (key.hospitalId() != null && key.hospitalId().equals(hospitalId)));
+    }
+
+    public void invalidateAll() {
+        hospitals.invalidateAll();
+        hospitalPages.invalidateAll();
+        doctors.invalidateAll();
+        doctorPages.invalidateAll();
+    }
+
+    public List<ReadThroughCache.Stats> getStats() {
+        return List.of(hospitals.getStats(), hospitalPages.getStats(), doctors.getStats(), doctorPages.getStats());
+    }
+
+    private static <T> boolean affects(CursorPage<T> page, Long id, Function<T, Long> idOf) {
+        return page.getNextCursor() == null
+                || page.getItems().stream().anyMatch(item -> Objects.equals(idOf.apply(item), id));
+    }
+
+    // hospitalId is null for the unscoped listings
+    private record PageKey(Long hospitalId, Long after, int size) {
+    }
+}
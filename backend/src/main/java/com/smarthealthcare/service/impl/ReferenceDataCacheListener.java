@@ -0,0 +1,52 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.entity.Doctor;
+import com.smarthealthcare.entity.Hospital;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Invalidates {@link ReferenceDataCache} for every persisted hospital or
+ * doctor change, whichever service or bulk path made it.
+ */
+@Component
+public class ReferenceDataCacheListener {
+
+    private final ReferenceDataCache referenceDataCache;
+
+    // lazy for the same reason as HospitalGeoIndexListener
+    public ReferenceDataCacheListener(@Lazy ReferenceDataCache referenceDataCache) {
+        this.referenceDataCache = referenceDataCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Runnable invalidation;
+        if (entity instanceof Hospital hospital) {
+            invalidation = () -> referenceDataCache.hospitalChanged(hospital.getId());
+        } else if (entity instanceof Doctor doctor) {
+            Long hospitalId = doctor.getHospital() != null ? doctor.getHospital().getId() : null;
+            invalidation = () -> referenceDataCache.doctorChanged(doctor.getId(), hospitalId);
+        } else {
+            return;
+        }
+
+        invalidation.run();
+        // again once committed, in case a read reloaded the old row in between
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+}
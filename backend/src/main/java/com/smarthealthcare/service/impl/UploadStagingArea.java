@@ -0,0 +1,120 @@
+package com.smarthealthcare.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed local staging for uploaded files. An upload is streamed
+ * once through a direct buffer into a file named by its SHA-256, so the
+ * storage and OCR workers read it from disk rather than from copies on the
+ * heap, and identical uploads share one staged file. Staged files are
+ * reference counted and deleted when the last record using them is done.
+ */
+@Component
+public class UploadStagingArea {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final Map<String, Integer> references = new ConcurrentHashMap<>();
+
+    public UploadStagingArea(@Value("${app.ingestion.staging-dir:data/upload-staging}") String stagingDir)
+            throws IOException {
+        this.directory = Files.createDirectories(Path.of(stagingDir));
+        // anything left here belongs to records that were failed at startup
+        try (Stream<Path> leftovers = Files.list(directory)) {
+            for (Path leftover : (Iterable<Path>) leftovers::iterator) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+    }
+
+    /**
+     * Streams {@code content} into the staging area and holds one reference
+     * to the result, which the caller must give back with {@link #release}.
+     */
+    public StagedFile stage(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(directory, "upload-", ".part");
+        long size = 0;
+        try (ReadableByteChannel in = Channels.newChannel(content);
+                FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (in.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    size += out.write(buffer);
+                }
+                buffer.clear();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        String hash = HexFormat.of().formatHex(digest.digest());
+        Path target = directory.resolve(hash);
+        references.merge(hash, 1, Integer::sum);
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // same content is already staged for another record
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            release(hash);
+            throw e;
+        }
+        return new StagedFile(target, hash, size);
+    }
+
+    /**
+     * Gives back one reference taken by {@link #stage}; the file is deleted
+     * with the last one. A record's reference must only be given back once
+     * every worker reading the file for that record has finished.
+     */
+    public void release(String hash) {
+        references.computeIfPresent(hash, (key, count) -> {
+            if (count > 1) {
+                return count - 1;
+            }
+            try {
+                Files.deleteIfExists(directory.resolve(key));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record StagedFile(Path path, String hash, long size) {
+    }
+}
@@ -0,0 +1,59 @@
+-- Schema as ddl-auto=update created it for the original entities, the starting
+-- point for every later migration. Existing databases are baselined at this
+-- version, so nothing added since belongs here.
+
+create table users (
+    id bigint not null auto_increment,
+    email varchar(255) not null,
+    name varchar(255) not null,
+    password varchar(255) not null,
+    role enum ('PATIENT','DOCTOR','ADMIN') not null,
+    primary key (id),
+    constraint uk_users_email unique (email)
+) engine=InnoDB;
+
+create table hospitals (
+    available_beds integer not null,
+    latitude float(53) not null,
+    longitude float(53) not null,
+    total_beds integer not null,
+    id bigint not null auto_increment,
+    location varchar(255) not null,
+    name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table doctors (
+    hospital_id bigint not null,
+    id bigint not null auto_increment,
+    user_id bigint,
+    name varchar(255) not null,
+    specialization varchar(255) not null,
+    primary key (id),
+    constraint uk_doctors_user_id unique (user_id),
+    constraint fk_doctors_hospital foreign key (hospital_id) references hospitals (id),
+    constraint fk_doctors_user foreign key (user_id) references users (id)
+) engine=InnoDB;
+
+create table appointments (
+    date date not null,
+    time time(6) not null,
+    doctor_id bigint not null,
+    id bigint not null auto_increment,
+    patient_id bigint not null,
+    status enum ('BOOKED','CANCELLED','COMPLETED') not null,
+    primary key (id),
+    constraint fk_appointments_doctor foreign key (doctor_id) references doctors (id),
+    constraint fk_appointments_patient foreign key (patient_id) references users (id)
+) engine=InnoDB;
+
+create table medical_records (
+    upload_date date not null,
+    id bigint not null auto_increment,
+    patient_id bigint not null,
+    extracted_text TEXT,
+    file_url varchar(255) not null,
+    notes varchar(255),
+    primary key (id),
+    constraint fk_medical_records_patient foreign key (patient_id) references users (id)
+) engine=InnoDB;
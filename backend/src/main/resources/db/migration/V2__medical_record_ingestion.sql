@@ -0,0 +1,13 @@
+-- Asynchronous ingestion: a record exists before its file is stored, carries a
+-- processing status and the hash used to skip re-uploads.
+
+alter table medical_records modify file_url varchar(255) null;
+
+-- every record uploaded before this was processed synchronously, so it is READY
+alter table medical_records add column status enum ('PENDING','READY','FAILED') not null default 'READY';
+alter table medical_records alter column status drop default;
+
+alter table medical_records add column failure_reason varchar(255);
+alter table medical_records add column content_hash varchar(64);
+
+create index idx_medical_records_content_hash on medical_records (content_hash);
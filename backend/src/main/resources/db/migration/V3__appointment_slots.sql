@@ -0,0 +1,23 @@
+-- One row per booked slot; the unique key is what stops double booking.
+
+create table appointment_slots (
+    date date not null,
+    time time(6) not null,
+    appointment_id bigint not null,
+    doctor_id bigint not null,
+    id bigint not null auto_increment,
+    primary key (id),
+    constraint uk_appointment_slots_doctor_date_time unique (doctor_id, date, time),
+    constraint uk_appointment_slots_appointment_id unique (appointment_id),
+    constraint fk_appointment_slots_appointment foreign key (appointment_id) references appointments (id),
+    constraint fk_appointment_slots_doctor foreign key (doctor_id) references doctors (id)
+) engine=InnoDB;
+
+-- Reserve the slots of appointments booked before this table existed. Slots
+-- that were already double booked keep the earliest appointment, the others
+-- stay BOOKED without a reservation and are left for staff to sort out.
+insert into appointment_slots (doctor_id, date, time, appointment_id)
+select doctor_id, date, time, min(id)
+from appointments
+where status = 'BOOKED'
+group by doctor_id, date, time;
@@ -0,0 +1,15 @@
+-- Indexes for the finders on the request path. The list endpoints page with
+-- "where <owner> = ? and id > ? order by id", so each index ends in id and the
+-- page is one ordered range read with no sort. They also serve the foreign keys.
+
+-- AppointmentRepository.findPageByPatientId / streamByPatientId
+create index idx_appointments_patient_id on appointments (patient_id, id);
+
+-- AppointmentRepository.findPageByDoctorId / streamByDoctorId
+create index idx_appointments_doctor_id on appointments (doctor_id, id);
+
+-- MedicalRecordRepository.findByPatientIdAndIdGreaterThanOrderByIdAsc / streamByPatientId
+create index idx_medical_records_patient_id on medical_records (patient_id, id);
+
+-- DoctorRepository.findByHospitalIdAndIdGreaterThanOrderByIdAsc
+create index idx_doctors_hospital_id on doctors (hospital_id, id);
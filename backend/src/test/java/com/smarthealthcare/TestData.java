@@ -0,0 +1,49 @@
+package com.smarthealthcare;
+
+import com.smarthealthcare.entity.Doctor;
+import com.smarthealthcare.entity.Hospital;
+import com.smarthealthcare.entity.Role;
+import com.smarthealthcare.entity.User;
+import com.smarthealthcare.repository.DoctorRepository;
+import com.smarthealthcare.repository.HospitalRepository;
+import com.smarthealthcare.repository.UserRepository;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.util.UUID;
+
+/**
+ * Creates the rows tests build on. The test database lives as long as the
+ * cached application context, so every call makes new, uniquely named rows.
+ */
+@TestComponent
+public class TestData {
+
+    private final HospitalRepository hospitalRepository;
+    private final DoctorRepository doctorRepository;
+    private final UserRepository userRepository;
+
+    public TestData(HospitalRepository hospitalRepository, DoctorRepository doctorRepository,
+            UserRepository userRepository) {
+        this.hospitalRepository = hospitalRepository;
+        this.doctorRepository = doctorRepository;
+        this.userRepository = userRepository;
+    }
+
+    public Hospital hospital(int totalBeds, int availableBeds) {
+        return hospital(18.52, 73.85, totalBeds, availableBeds);
+    }
+
+    public Hospital hospital(double latitude, double longitude, int totalBeds, int availableBeds) {
+        return hospitalRepository.save(new Hospital(null, "Hospital " + UUID.randomUUID(), "Pune", latitude,
+                longitude, totalBeds, availableBeds));
+    }
+
+    public Doctor doctor(Hospital hospital) {
+        return doctorRepository.save(new Doctor(null, "Dr. " + UUID.randomUUID(), "Cardiology", hospital, null));
+    }
+
+    public User user(Role role) {
+        return userRepository.save(new User(null, role + " " + UUID.randomUUID(),
+                UUID.randomUUID() + "@test.local", "x", role));
+    }
+}
@@ -0,0 +1,112 @@
+package com.smarthealthcare.config;
+
+import com.smarthealthcare.TestData;
+import com.smarthealthcare.dto.AppointmentDto;
+import com.smarthealthcare.dto.HospitalDto;
+import com.smarthealthcare.entity.Doctor;
+import com.smarthealthcare.entity.Role;
+import com.smarthealthcare.entity.User;
+import com.smarthealthcare.security.AuthenticatedUser;
+import com.smarthealthcare.service.AppointmentService;
+import com.smarthealthcare.service.HospitalService;
+import com.smarthealthcare.service.impl.HospitalGeoIndex;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing against two separate H2 databases. Nothing replicates between them,
+ * so a row written to only one side shows which database answered a read.
+ */
+@SpringBootTest(properties = {
+        "app.datasource.replica.urls=jdbc:h2:mem:replica-${random.uuid};MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.lag-tolerance-ms=500" })
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ReadWriteRoutingDataSourceTest {
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private HospitalService hospitalService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private HospitalGeoIndex hospitalGeoIndex;
+
+    @Autowired
+    private TestData testData;
+
+    private JdbcTemplate replica;
+
+    // Flyway only migrates the primary; the replica gets the same schema here
+    @BeforeEach
+    void migrateReplica() {
+        DataSource replicaDataSource = (DataSource) routingDataSource.getResolvedDataSources().get("replica-1");
+        Flyway.configure().dataSource(replicaDataSource).load().migrate();
+        replica = new JdbcTemplate(replicaDataSource);
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void servesAnonymousFindNearestFromTheReplica() {
+        long id = 900_001L;
+        replica.update("insert into hospitals (id, name, location, latitude, longitude, total_beds, available_beds) "
+                + "values (?, 'Replica Only', 'Oslo', 59.91, 10.75, 10, 5)", id);
+        hospitalGeoIndex.put(id, 59.91, 10.75, 5);
+        try {
+            assertThat(hospitalService.findNearestHospitals(59.91, 10.75, 5, null))
+                    .extracting(HospitalDto::getId).containsExactly(id);
+            assertThat(hospitalService.findNearestWithFreeBeds(59.91, 10.75, 5, 1, 1))
+                    .extracting(HospitalDto::getId).containsExactly(id);
+        } finally {
+            hospitalGeoIndex.remove(id);
+        }
+    }
+
+    @Test
+    void keepsAUsersReadsOnThePrimaryWithinTheLagTolerance() throws Exception {
+        Doctor doctor = testData.doctor(testData.hospital(10, 10));
+        User patient = testData.user(Role.PATIENT);
+        AuthenticatedUser principal = new AuthenticatedUser(patient.getId(), patient.getName(), patient.getEmail(),
+                "ROLE_PATIENT", null);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        AppointmentDto request = new AppointmentDto();
+        request.setDoctorId(doctor.getId());
+        request.setPatientId(patient.getId());
+        request.setDate(LocalDate.now().plusDays(1));
+        request.setTime(LocalTime.of(10, 0));
+        AppointmentDto booked = appointmentService.bookAppointment(request);
+
+        // just wrote, so the primary answers and the booking is there
+        assertThat(appointmentService.getAppointmentsByPatient(patient.getId(), null, 10).getItems())
+                .extracting(AppointmentDto::getId).containsExactly(booked.getId());
+
+        // past the tolerance the replica answers, and it never received the booking
+        Thread.sleep(700);
+        assertThat(appointmentService.getAppointmentsByPatient(patient.getId(), null, 10).getItems()).isEmpty();
+    }
+}
@@ -0,0 +1,78 @@
+package com.smarthealthcare.controller;
+
+import com.smarthealthcare.TestData;
+import com.smarthealthcare.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class AppointmentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void requiresSignInForAppointmentEvents() throws Exception {
+        mockMvc.perform(events("/api/appointments/patient/1/events")).andExpect(status().isUnauthorized());
+        mockMvc.perform(events("/api/appointments/doctor/1/events")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void letsPatientsFollowOnlyTheirOwnAppointments() throws Exception {
+        AuthenticatedUser patient = principal(101L, "ROLE_PATIENT");
+
+        mockMvc.perform(events("/api/appointments/patient/101/events").with(user(patient)))
+                .andExpect(request().asyncStarted());
+        mockMvc.perform(events("/api/appointments/patient/102/events").with(user(patient)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(events("/api/appointments/doctor/1/events").with(user(patient)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void letsStaffFollowAnyCalendar() throws Exception {
+        AuthenticatedUser doctor = principal(201L, "ROLE_DOCTOR");
+
+        mockMvc.perform(events("/api/appointments/doctor/7/events").with(user(doctor)))
+                .andExpect(request().asyncStarted());
+        mockMvc.perform(events("/api/appointments/patient/103/events").with(user(doctor)))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void limitsOpenStreamsPerClient() throws Exception {
+        AuthenticatedUser patient = principal(301L, "ROLE_PATIENT");
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(events("/api/appointments/patient/301/events").with(user(patient)))
+                    .andExpect(request().asyncStarted());
+        }
+
+        mockMvc.perform(events("/api/appointments/patient/301/events").with(user(patient)))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(events("/api/appointments/patient/302/events").with(user(principal(302L, "ROLE_PATIENT"))))
+                .andExpect(request().asyncStarted());
+    }
+
+    private static MockHttpServletRequestBuilder events(String path) {
+        return get(path).accept(MediaType.TEXT_EVENT_STREAM);
+    }
+
+    private static AuthenticatedUser principal(Long id, String role) {
+        return new AuthenticatedUser(id, "User " + id, "user" + id + "@test.local", role, null);
+    }
+}
@@ -0,0 +1,129 @@
+package com.smarthealthcare.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthealthcare.TestData;
+import com.smarthealthcare.dto.RegisterDto;
+import com.smarthealthcare.entity.Role;
+import com.smarthealthcare.entity.User;
+import com.smarthealthcare.repository.UserRepository;
+import com.smarthealthcare.security.AuthenticatedUser;
+import com.smarthealthcare.security.JwtAuthenticationCache;
+import com.smarthealthcare.security.JwtTokenProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class AuthControllerTest {
+
+    // any authenticated GET; a patient who owns no such file gets 403 rather than 401
+    private static final String PROTECTED = "/api/medical-records/files/missing.txt";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private JwtAuthenticationCache jwtAuthenticationCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void registersWithoutHoldingTheRequestThread() throws Exception {
+        RegisterDto registerDto = registration(Role.PATIENT);
+
+        MvcResult started = mockMvc.perform(register(registerDto)).andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isCreated());
+
+        User user = userRepository.findByEmail(registerDto.getEmail()).orElseThrow();
+        assertThat(passwordEncoder.matches(registerDto.getPassword(), user.getPassword())).isTrue();
+    }
+
+    @Test
+    void rejectsIncompleteDoctorsBeforeHashingOrSaving() throws Exception {
+        RegisterDto registerDto = registration(Role.DOCTOR);
+
+        mockMvc.perform(register(registerDto)).andExpect(status().isBadRequest());
+
+        assertThat(userRepository.existsByEmail(registerDto.getEmail())).isFalse();
+    }
+
+    @Test
+    void logoutEndsEveryAccessTokenOfTheLogin() throws Exception {
+        User user = testData.user(Role.PATIENT);
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getName(), user.getEmail(),
+                "ROLE_" + user.getRole(), null);
+        String familyId = UUID.randomUUID().toString();
+        String first = jwtTokenProvider.generateToken(principal, familyId);
+        String second = jwtTokenProvider.generateToken(principal, familyId);
+        String otherLogin = jwtTokenProvider.generateToken(principal, UUID.randomUUID().toString());
+
+        // both tokens of the login resolve once and are cached from then on
+        expect(first, status().isForbidden());
+        expect(second, status().isForbidden());
+        expect(otherLogin, status().isForbidden());
+
+        mockMvc.perform(post("/api/auth/logout").header(HttpHeaders.AUTHORIZATION, "Bearer " + first))
+                .andExpect(status().isOk());
+
+        expect(first, status().isUnauthorized());
+        expect(second, status().isUnauthorized());
+        expect(otherLogin, status().isForbidden());
+
+        // a verification that raced the logout and cached the token again is still refused
+        jwtAuthenticationCache.put(second, principal, familyId, System.currentTimeMillis() + 60_000);
+        expect(second, status().isUnauthorized());
+    }
+
+    private static RegisterDto registration(Role role) {
+        RegisterDto registerDto = new RegisterDto();
+        registerDto.setName("New User");
+        registerDto.setEmail(UUID.randomUUID() + "@test.local");
+        registerDto.setPassword("correct horse battery staple");
+        registerDto.setRole(role);
+        return registerDto;
+    }
+
+    private MockHttpServletRequestBuilder register(RegisterDto registerDto) throws Exception {
+        return post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(registerDto));
+    }
+
+    private void expect(String token, ResultMatcher result) throws Exception {
+        mockMvc.perform(get(PROTECTED).header(HttpHeaders.AUTHORIZATION, "Bearer " + token)).andExpect(result);
+    }
+}
@@ -0,0 +1,98 @@
+package com.smarthealthcare.controller;
+
+import com.smarthealthcare.TestData;
+import com.smarthealthcare.entity.MedicalRecord;
+import com.smarthealthcare.entity.MedicalRecordStatus;
+import com.smarthealthcare.entity.Role;
+import com.smarthealthcare.entity.User;
+import com.smarthealthcare.repository.MedicalRecordRepository;
+import com.smarthealthcare.security.AuthenticatedUser;
+import com.smarthealthcare.service.RecordStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class MedicalRecordControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecordStorage recordStorage;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Autowired
+    private TestData testData;
+
+    private User owner;
+    private String path;
+
+    @BeforeEach
+    void storeFile() throws Exception {
+        String key = UUID.randomUUID().toString().replace("-", "") + ".txt";
+        Path file = Files.createTempFile("record", ".txt");
+        try {
+            Files.writeString(file, "Haemoglobin 13.8 g/dL");
+            String url = recordStorage.store(key, file);
+
+            owner = testData.user(Role.PATIENT);
+            MedicalRecord record = new MedicalRecord();
+            record.setPatient(owner);
+            record.setUploadDate(LocalDate.now());
+            record.setStatus(MedicalRecordStatus.READY);
+            record.setFileUrl(url);
+            medicalRecordRepository.save(record);
+        } finally {
+            Files.delete(file);
+        }
+        path = "/api/medical-records/files/" + key;
+    }
+
+    @Test
+    void servesFilesToTheirOwnerWithoutCaching() throws Exception {
+        mockMvc.perform(get(path).with(user(principal(owner))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andExpect(content().string("Haemoglobin 13.8 g/dL"));
+    }
+
+    @Test
+    void servesFilesToStaff() throws Exception {
+        User doctor = testData.user(Role.DOCTOR);
+        mockMvc.perform(get(path).with(user(principal(doctor)))).andExpect(status().isOk());
+    }
+
+    @Test
+    void refusesOtherPatientsAndAnonymousCallers() throws Exception {
+        User other = testData.user(Role.PATIENT);
+        mockMvc.perform(get(path).with(user(principal(other)))).andExpect(status().isForbidden());
+        mockMvc.perform(get(path)).andExpect(status().isUnauthorized());
+    }
+
+    private static AuthenticatedUser principal(User user) {
+        return new AuthenticatedUser(user.getId(), user.getName(), user.getEmail(), "ROLE_" + user.getRole(), null);
+    }
+}
@@ -0,0 +1,99 @@
+package com.smarthealthcare.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN for the SQL behind the hot repository finders on a database
+ * built by the Flyway migrations, and fails when any of them reads a whole
+ * table, e.g. because a migration dropped or reshaped the index it relies on.
+ * The tables are filled first so the planner sees more than a handful of rows.
+ */
+class FinderQueryPlanTest {
+
+    private static SingleConnectionDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:finder-plans;MODE=MySQL", "sa", "", true);
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.update("insert into users (email, name, password, role) "
+                + "select concat('user', x, '@test.local'), concat('User ', x), 'x', "
+                + "case when mod(x, 10) = 0 then 'DOCTOR' else 'PATIENT' end from system_range(1, 2000)");
+        jdbcTemplate.update("insert into hospitals (name, location, latitude, longitude, total_beds, available_beds) "
+                + "select concat('Hospital ', x), 'Pune', 18.5, 73.8, 100, 50 from system_range(1, 200)");
+        jdbcTemplate.update("insert into doctors (name, specialization, hospital_id, user_id) "
+                + "select concat('Dr. ', x), 'Cardiology', mod(x, 200) + 1, x * 10 from system_range(1, 200)");
+        jdbcTemplate.update("insert into appointments (patient_id, doctor_id, date, time, status) "
+                + "select mod(x, 1800) + 1, mod(x, 200) + 1, dateadd(day, mod(x, 60), date '2030-01-01'), "
+                + "time '08:00:00', 'BOOKED' from system_range(1, 10000)");
+        jdbcTemplate.update("insert into appointment_slots (doctor_id, date, time, appointment_id) "
+                + "select doctor_id, date, time, min(id) from appointments group by doctor_id, date, time");
+        jdbcTemplate.update("insert into medical_records (patient_id, upload_date, status, content_hash) "
+                + "select mod(x, 1800) + 1, date '2030-01-01', 'READY', concat('hash', x) from system_range(1, 5000)");
+        jdbcTemplate.execute("analyze");
+    }
+
+    @AfterAll
+    static void close() {
+        dataSource.destroy();
+    }
+
+    static Stream<Arguments> finders() {
+        return Stream.of(
+                Arguments.of("AppointmentRepository.findPageByPatientId",
+                        "select a.id, p.id, d.id, d.name, p.name, a.date, a.time, a.status from appointments a "
+                                + "join doctors d on d.id = a.doctor_id join users p on p.id = a.patient_id "
+                                + "where p.id = 1 and a.id > 0 order by a.id limit 21"),
+                Arguments.of("AppointmentRepository.findPageByDoctorId",
+                        "select a.id, p.id, d.id, d.name, p.name, a.date, a.time, a.status from appointments a "
+                                + "join doctors d on d.id = a.doctor_id join users p on p.id = a.patient_id "
+                                + "where d.id = 1 and a.id > 0 order by a.id limit 21"),
+                Arguments.of("AppointmentRepository.findWithDoctorAndPatientById",
+                        "select a.*, d.*, p.* from appointments a join doctors d on d.id = a.doctor_id "
+                                + "join users p on p.id = a.patient_id where a.id = 1"),
+                Arguments.of("AppointmentSlotRepository.existsByDoctorIdAndDateAndTime",
+                        "select s.id from appointment_slots s where s.doctor_id = 1 and s.date = '2030-01-01' "
+                                + "and s.time = '10:00:00' limit 1"),
+                Arguments.of("AppointmentSlotRepository.deleteByAppointmentId",
+                        "select s.id from appointment_slots s where s.appointment_id = 1"),
+                Arguments.of("MedicalRecordRepository.findByPatientIdAndIdGreaterThanOrderByIdAsc",
+                        "select m.* from medical_records m where m.patient_id = 1 and m.id > 0 order by m.id "
+                                + "limit 21"),
+                Arguments.of("MedicalRecordRepository.findFirstByContentHashAndStatus",
+                        "select m.* from medical_records m where m.content_hash = 'abc' and m.status = 'READY' "
+                                + "limit 1"),
+                Arguments.of("DoctorRepository.findByHospitalIdAndIdGreaterThanOrderByIdAsc",
+                        "select d.* from doctors d where d.hospital_id = 1 and d.id > 0 order by d.id limit 21"),
+                Arguments.of("UserRepository.findByEmail",
+                        "select u.* from users u where u.email = 'user1@test.local'"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("finders")
+    void finderUsesAnIndex(String finder, String sql) {
+        List<String> plan = new ArrayList<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList("explain " + sql)) {
+            row.values().forEach(value -> plan.add(String.valueOf(value)));
+        }
+
+        // H2 prints one PLAN column with ".tableScan" for each table it reads in full
+        assertThat(String.join("\n", plan)).as(finder).doesNotContain(".tableScan");
+    }
+}
@@ -0,0 +1,77 @@
+package com.smarthealthcare.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Upgrades a database that holds data written before the migrations existed,
+ * the way a production database baselined at V1 is upgraded.
+ */
+class SchemaMigrationTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createOriginalSchema() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:schema-migration;MODE=MySQL", "sa", "", true);
+        flyway("1").migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.update("insert into users (id, email, name, password, role) values "
+                + "(1, 'patient@test.local', 'Patient', 'x', 'PATIENT'), "
+                + "(2, 'doctor@test.local', 'Doctor', 'x', 'DOCTOR')");
+        jdbcTemplate.update("insert into hospitals (id, name, location, latitude, longitude, total_beds, "
+                + "available_beds) values (1, 'Hospital', 'Pune', 18.5, 73.8, 10, 5)");
+        jdbcTemplate.update("insert into doctors (id, name, specialization, hospital_id, user_id) "
+                + "values (1, 'Dr. Rao', 'Cardiology', 1, 2)");
+        jdbcTemplate.update("insert into appointments (id, patient_id, doctor_id, date, time, status) values "
+                + "(1, 1, 1, '2030-01-01', '10:00:00', 'BOOKED'), "
+                + "(2, 1, 1, '2030-01-01', '10:30:00', 'CANCELLED'), "
+                // double booked before slots were reserved
+                + "(3, 1, 1, '2030-01-01', '11:00:00', 'BOOKED'), "
+                + "(4, 1, 1, '2030-01-01', '11:00:00', 'BOOKED')");
+        jdbcTemplate.update("insert into medical_records (id, patient_id, file_url, upload_date) "
+                + "values (1, 1, 'https://files.test/1.png', '2024-01-01')");
+    }
+
+    @AfterEach
+    void close() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void existingRecordsBecomeReady() {
+        flyway(null).migrate();
+
+        assertThat(jdbcTemplate.queryForObject("select status from medical_records where id = 1", String.class))
+                .isEqualTo("READY");
+    }
+
+    @Test
+    void bookedAppointmentsReserveTheirSlots() {
+        flyway(null).migrate();
+
+        List<Map<String, Object>> slots = jdbcTemplate.queryForList(
+                "select appointment_id, time from appointment_slots order by appointment_id");
+        assertThat(slots).extracting(slot -> ((Number) slot.get("APPOINTMENT_ID")).longValue())
+                .containsExactly(1L, 3L);
+    }
+
+    private Flyway flyway(String target) {
+        var configuration = Flyway.configure().dataSource(dataSource);
+        if (target != null) {
+            configuration.target(target);
+        }
+        return configuration.load();
+    }
+}
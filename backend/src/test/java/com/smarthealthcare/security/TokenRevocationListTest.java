@@ -0,0 +1,75 @@
+package com.smarthealthcare.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationListTest {
+
+    @Test
+    void neverForgetsALiveRevocationWhilePruning() throws Exception {
+        // the scheduled prune stays out of the way; the test drives it instead
+        TokenRevocationList revocations = new TokenRevocationList(1000, 3600);
+        long live = System.currentTimeMillis() + 3_600_000;
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        try {
+            Future<Integer> pruner = pool.submit(() -> {
+                int prunes = 0;
+                while (running.get()) {
+                    // an expired entry makes every prune rebuild the filter
+                    revocations.revoke("expired-" + prunes, 0);
+                    ReflectionTestUtils.invokeMethod(revocations, "prune");
+                    prunes++;
+                }
+                return prunes;
+            });
+
+            List<Future<Integer>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                workers.add(pool.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(thread);
+                    List<String> revoked = new ArrayList<>();
+                    int missed = 0;
+                    for (int i = 0; i < 20_000; i++) {
+                        String tokenId = "token-" + thread + "-" + i;
+                        revocations.revoke(tokenId, live);
+                        revoked.add(tokenId);
+                        if (!revocations.isRevoked(tokenId)
+                                || !revocations.isRevoked(revoked.get(random.nextInt(revoked.size())))) {
+                            missed++;
+                        }
+                    }
+                    return missed;
+                }));
+            }
+
+            int missed = 0;
+            for (Future<Integer> worker : workers) {
+                missed += worker.get(60, TimeUnit.SECONDS);
+            }
+            running.set(false);
+
+            assertThat(pruner.get(10, TimeUnit.SECONDS)).isPositive();
+            assertThat(missed).isZero();
+            assertThat(revocations.size()).isEqualTo(threads * 20_000);
+        } finally {
+            running.set(false);
+            pool.shutdownNow();
+            revocations.shutdown();
+        }
+    }
+}
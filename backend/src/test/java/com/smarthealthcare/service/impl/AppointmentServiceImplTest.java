@@ -0,0 +1,211 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.TestData;
+import com.smarthealthcare.dto.AppointmentDto;
+import com.smarthealthcare.dto.CursorPage;
+import com.smarthealthcare.entity.Appointment;
+import com.smarthealthcare.entity.AppointmentStatus;
+import com.smarthealthcare.entity.Doctor;
+import com.smarthealthcare.entity.Hospital;
+import com.smarthealthcare.entity.Role;
+import com.smarthealthcare.entity.User;
+import com.smarthealthcare.exception.APIException;
+import com.smarthealthcare.mapper.AppointmentMapper;
+import com.smarthealthcare.repository.AppointmentRepository;
+import com.smarthealthcare.repository.AppointmentSlotRepository;
+import com.smarthealthcare.repository.DoctorRepository;
+import com.smarthealthcare.repository.UserRepository;
+import com.smarthealthcare.service.AppointmentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class AppointmentServiceImplTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private TestData testData;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listsAPatientsAppointmentsInOneStatement() {
+        User patient = testData.user(Role.PATIENT);
+        List<Doctor> doctors = doctors(3);
+        for (int i = 0; i < 6; i++) {
+            appointment(patient, doctors.get(i % doctors.size()), LocalTime.of(8, 0).plusMinutes(30L * i));
+        }
+
+        statistics.clear();
+        CursorPage<AppointmentDto> page = appointmentService.getAppointmentsByPatient(patient.getId(), null, 4);
+
+        assertThat(page.getItems()).hasSize(4).allSatisfy(appointment -> {
+            assertThat(appointment.getDoctorName()).startsWith("Dr. ");
+            assertThat(appointment.getPatientName()).isEqualTo(patient.getName());
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void listsADoctorsAppointmentsInOneStatement() {
+        Doctor doctor = doctors(1).get(0);
+        for (int i = 0; i < 6; i++) {
+            appointment(testData.user(Role.PATIENT), doctor, LocalTime.of(8, 0).plusMinutes(30L * i));
+        }
+
+        statistics.clear();
+        CursorPage<AppointmentDto> page = appointmentService.getAppointmentsByDoctor(doctor.getId(), null, 10);
+
+        assertThat(page.getItems()).hasSize(6).extracting(AppointmentDto::getPatientName).doesNotHaveDuplicates();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void booksEachContendedSlotExactlyOnce() throws Exception {
+        Doctor doctor = doctors(1).get(0);
+        List<User> patients = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            patients.add(testData.user(Role.PATIENT));
+        }
+        // a second service with its own locks stands in for another instance
+        AppointmentService otherInstance = service(new AppointmentSlotLocks(256),
+                context.getBean(AppointmentSlotRepository.class));
+        LocalDate date = LocalDate.now().plusDays(2);
+        // every slot of the working day, each contended by every patient: 10 x 16 x 32 = 5120 attempts
+        List<LocalTime> times = new ArrayList<>();
+        for (LocalTime time = LocalTime.of(9, 0); time.isBefore(LocalTime.of(17, 0)); time = time.plusMinutes(30)) {
+            times.add(time);
+        }
+        int rounds = 10;
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<AppointmentDto>> attempts = new ArrayList<>();
+        try {
+            for (int round = 0; round < rounds; round++) {
+                for (LocalTime time : times) {
+                    for (int i = 0; i < patients.size(); i++) {
+                        AppointmentService service = i % 2 == 0 ? appointmentService : otherInstance;
+                        AppointmentDto request = new AppointmentDto();
+                        request.setDoctorId(doctor.getId());
+                        request.setPatientId(patients.get(i).getId());
+                        request.setDate(date.plusDays(round));
+                        request.setTime(time);
+                        attempts.add(pool.submit(() -> {
+                            start.await();
+                            return service.bookAppointment(request);
+                        }));
+                    }
+                }
+            }
+            start.countDown();
+
+            int booked = 0;
+            for (Future<AppointmentDto> attempt : attempts) {
+                try {
+                    attempt.get(120, TimeUnit.SECONDS);
+                    booked++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOfSatisfying(APIException.class,
+                            conflict -> assertThat(conflict.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+                }
+            }
+
+            assertThat(attempts).hasSize(5120);
+            assertThat(booked).isEqualTo(rounds * times.size());
+            assertThat(appointmentRepository.findAll()).filteredOn(a -> a.getDoctor().getId().equals(doctor.getId()))
+                    .hasSize(booked)
+                    .extracting(a -> a.getDate() + " " + a.getTime())
+                    .doesNotHaveDuplicates();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void leavesOtherIntegrityViolationsAlone() {
+        AppointmentSlotRepository slots = mock(AppointmentSlotRepository.class);
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("foreign key",
+                new ConstraintViolationException("foreign key", null, "fk_appointment_slots_doctor"));
+        when(slots.saveAndFlush(any())).thenThrow(failure);
+        AppointmentService service = service(new AppointmentSlotLocks(1), slots);
+
+        AppointmentDto request = new AppointmentDto();
+        request.setDoctorId(doctors(1).get(0).getId());
+        request.setPatientId(testData.user(Role.PATIENT).getId());
+        request.setDate(LocalDate.now().plusDays(1));
+        request.setTime(LocalTime.of(11, 0));
+
+        assertThatThrownBy(() -> service.bookAppointment(request)).isSameAs(failure);
+    }
+
+    private AppointmentService service(AppointmentSlotLocks locks, AppointmentSlotRepository slots) {
+        AppointmentServiceImpl service = new AppointmentServiceImpl(appointmentRepository,
+                context.getBean(DoctorRepository.class), context.getBean(UserRepository.class), slots, locks,
+                context.getBean(DoctorCalendarIndex.class), context.getBean(ChangeEventBroadcaster.class),
+                context.getBean(TransactionTemplate.class), context.getBean(AppointmentMapper.class));
+        ReflectionTestUtils.setField(service, "slotMinutes", 30);
+        return service;
+    }
+
+    private List<Doctor> doctors(int count) {
+        List<Doctor> doctors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            doctors.add(testData.doctor(testData.hospital(10, 10)));
+        }
+        return doctors;
+    }
+
+    private void appointment(User patient, Doctor doctor, LocalTime time) {
+        appointmentRepository.save(new Appointment(null, patient, doctor, LocalDate.now().plusDays(1), time,
+                AppointmentStatus.BOOKED));
+    }
+}
@@ -0,0 +1,74 @@
+package com.smarthealthcare.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HospitalGeoIndexTest {
+
+    @Test
+    void findsHospitalJustInsideTheRadiusAlongAMeridian() {
+        HospitalGeoIndex index = new HospitalGeoIndex(null, 0.25);
+        index.put(1L, 1.0005, 0.0, 10);
+        // populate the grid so the query visits cells instead of walking all of them
+        for (int i = 0; i < 2000; i++) {
+            index.put(100L + i, -60 + (i % 40) * 3.0, -170 + (i / 40) * 6.8, 10);
+        }
+
+        List<HospitalGeoIndex.Match> matches = index.findWithin(0.1015, 0.0, 100, 0);
+
+        assertThat(matches).extracting(HospitalGeoIndex.Match::id).contains(1L);
+    }
+
+    @Test
+    void matchesAFullScanEverywhereOnTheGlobe() {
+        SplittableRandom random = new SplittableRandom(11);
+        double[] latitudes = new double[20000];
+        double[] longitudes = new double[latitudes.length];
+        int[] beds = new int[latitudes.length];
+        HospitalGeoIndex index = new HospitalGeoIndex(null, 0.25);
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = random.nextDouble(-90, 90);
+            longitudes[i] = random.nextDouble(-180, 180);
+            beds[i] = random.nextInt(0, 5);
+            index.put((long) i, latitudes[i], longitudes[i], beds[i]);
+        }
+
+        for (int query = 0; query < 500; query++) {
+            double lat = random.nextDouble(-90, 90);
+            double lon = random.nextDouble(-180, 180);
+            // place the centre right next to a hospital so small radii have something to find
+            int near = random.nextInt(latitudes.length);
+            if (query % 2 == 0) {
+                lat = Math.max(-90, Math.min(90, latitudes[near] + random.nextDouble(-1, 1)));
+                lon = longitudes[near] + random.nextDouble(-1, 1);
+            }
+            double radius = new double[] { 1, 10, 50, 100, 500, 2000 }[query % 6];
+            int minBeds = query % 3;
+
+            assertThat(index.findWithin(lat, lon, radius, minBeds, 0))
+                    .extracting(HospitalGeoIndex.Match::id)
+                    .as("lat %s lon %s radius %s", lat, lon, radius)
+                    .containsExactlyElementsOf(fullScan(latitudes, longitudes, beds, lat, lon, radius, minBeds));
+        }
+    }
+
+    // the original implementation: haversine for every hospital, then sort
+    private static List<Long> fullScan(double[] latitudes, double[] longitudes, int[] beds, double lat, double lon,
+            double radius, int minBeds) {
+        List<HospitalGeoIndex.Match> matches = new ArrayList<>();
+        for (int i = 0; i < latitudes.length; i++) {
+            double distance = HospitalGeoIndex.calculateDistance(lat, lon, latitudes[i], longitudes[i]);
+            if (distance <= radius && beds[i] >= minBeds) {
+                matches.add(new HospitalGeoIndex.Match((long) i, distance));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(HospitalGeoIndex.Match::distance));
+        return matches.stream().map(HospitalGeoIndex.Match::id).toList();
+    }
+}
@@ -0,0 +1,161 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.TestData;
+import com.smarthealthcare.dto.HospitalDto;
+import com.smarthealthcare.entity.Hospital;
+import com.smarthealthcare.exception.APIException;
+import com.smarthealthcare.repository.HospitalRepository;
+import com.smarthealthcare.service.HospitalService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class HospitalServiceImplTest {
+
+    @Autowired
+    private HospitalService hospitalService;
+
+    @Autowired
+    private HospitalRepository hospitalRepository;
+
+    @Autowired
+    private HospitalGeoIndex hospitalGeoIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void keepsBedCountsConsistentUnderParallelAdmitAndDischarge() throws Exception {
+        Hospital hospital = testData.hospital(-33.87, 151.21, 40, 20);
+        Long id = hospital.getId();
+
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<int[]>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                workers.add(pool.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    // admitted, discharged, rejected
+                    int[] counts = new int[3];
+                    start.await();
+                    for (int i = 0; i < 200; i++) {
+                        int count = random.nextInt(1, 4);
+                        boolean admit = random.nextBoolean();
+                        try {
+                            HospitalDto result = admit
+                                    ? hospitalService.admitPatients(id, count)
+                                    : hospitalService.dischargePatients(id, count);
+                            assertThat(result.getAvailableBeds()).isBetween(0, 40);
+                            counts[admit ? 0 : 1] += count;
+                        } catch (APIException e) {
+                            assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT);
+                            counts[2]++;
+                        }
+                    }
+                    return counts;
+                }));
+            }
+            start.countDown();
+
+            int admitted = 0;
+            int discharged = 0;
+            for (Future<int[]> worker : workers) {
+                int[] counts = worker.get(60, TimeUnit.SECONDS);
+                admitted += counts[0];
+                discharged += counts[1];
+            }
+
+            int availableBeds = hospitalRepository.findById(id).orElseThrow().getAvailableBeds();
+            assertThat(availableBeds).isEqualTo(20 - admitted + discharged).isBetween(0, 40);
+            assertThat(admitted + discharged).isPositive();
+
+            // the index applies the same deltas after each commit
+            assertThat(hospitalGeoIndex.findWithin(-33.87, 151.21, 1, availableBeds + 1, 0))
+                    .extracting(HospitalGeoIndex.Match::id).doesNotContain(id);
+            if (availableBeds > 0) {
+                assertThat(hospitalGeoIndex.findWithin(-33.87, 151.21, 1, availableBeds, 0))
+                        .extracting(HospitalGeoIndex.Match::id).contains(id);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void indexesHospitalChangesOnlyOnceTheyCommit() {
+        // a rolled-back create leaves nothing behind
+        transactionTemplate.executeWithoutResult(status -> {
+            hospitalRepository.saveAndFlush(new Hospital(null, "Never Opened", "Lima", -12.05, -77.04, 10, 10));
+            status.setRollbackOnly();
+        });
+        assertThat(hospitalGeoIndex.findWithin(-12.05, -77.04, 5, 0, 0)).isEmpty();
+
+        Hospital hospital = testData.hospital(-12.05, -77.04, 10, 6);
+        Long id = hospital.getId();
+        assertThat(hospitalGeoIndex.findWithin(-12.05, -77.04, 5, 6, 0))
+                .extracting(HospitalGeoIndex.Match::id).containsExactly(id);
+
+        // a rolled-back update leaves the committed position and beds in place
+        transactionTemplate.executeWithoutResult(status -> {
+            Hospital moved = hospitalRepository.findById(id).orElseThrow();
+            moved.setLatitude(-33.45);
+            moved.setAvailableBeds(0);
+            hospitalRepository.saveAndFlush(moved);
+            status.setRollbackOnly();
+        });
+        assertThat(hospitalGeoIndex.findWithin(-12.05, -77.04, 5, 6, 0))
+                .extracting(HospitalGeoIndex.Match::id).containsExactly(id);
+
+        // a committed update shows up only after the commit
+        transactionTemplate.executeWithoutResult(status -> {
+            Hospital full = hospitalRepository.findById(id).orElseThrow();
+            full.setAvailableBeds(0);
+            hospitalRepository.saveAndFlush(full);
+            assertThat(hospitalGeoIndex.findWithin(-12.05, -77.04, 5, 6, 0))
+                    .extracting(HospitalGeoIndex.Match::id).containsExactly(id);
+        });
+        assertThat(hospitalGeoIndex.findWithin(-12.05, -77.04, 5, 1, 0)).isEmpty();
+    }
+
+    @Test
+    void fillsTheLimitPastHospitalsTheIndexStillThinksHaveBeds() {
+        Hospital nearest = testData.hospital(48.8566, 2.3522, 10, 2);
+        Hospital second = testData.hospital(48.8570, 2.3522, 10, 2);
+        Hospital third = testData.hospital(48.8600, 2.3522, 10, 5);
+        Hospital fourth = testData.hospital(48.8650, 2.3522, 10, 5);
+
+        // bulk updates bypass the entity listeners, leaving the index behind the database
+        transactionTemplate.executeWithoutResult(status -> {
+            hospitalRepository.admitPatients(nearest.getId(), 2);
+            hospitalRepository.admitPatients(second.getId(), 2);
+        });
+
+        List<HospitalDto> found = hospitalService.findNearestWithFreeBeds(48.8566, 2.3522, 5, 1, 2);
+
+        assertThat(found).extracting(HospitalDto::getId).containsExactly(third.getId(), fourth.getId());
+    }
+}
@@ -0,0 +1,187 @@
+package com.smarthealthcare.service.impl;
+
+import com.smarthealthcare.entity.MedicalRecord;
+import com.smarthealthcare.entity.MedicalRecordStatus;
+import com.smarthealthcare.entity.Role;
+import com.smarthealthcare.entity.User;
+import com.smarthealthcare.repository.MedicalRecordRepository;
+import com.smarthealthcare.repository.UserRepository;
+import com.smarthealthcare.service.RecordStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MedicalRecordIngestionPipelineTest {
+
+    @Autowired
+    private MedicalRecordIngestionPipeline ingestionPipeline;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void restartFailsOnlyIngestionsThePipelineLeftUnfinished() {
+        User patient = userRepository.save(new User(null, "Patient", UUID.randomUUID() + "@test.local", "x",
+                Role.PATIENT));
+        Long unfinished = save(patient, MedicalRecordStatus.PENDING, "a".repeat(64), null);
+        Long ready = save(patient, MedicalRecordStatus.READY, "b".repeat(64), "https://files.test/b.png");
+        // uploaded before ingestion went asynchronous, no hash
+        Long legacy = save(patient, MedicalRecordStatus.PENDING, null, "https://files.test/legacy.png");
+
+        ingestionPipeline.failAbandonedRecords();
+
+        assertThat(medicalRecordRepository.findById(unfinished).orElseThrow().getStatus())
+                .isEqualTo(MedicalRecordStatus.FAILED);
+        assertThat(medicalRecordRepository.findById(ready).orElseThrow().getStatus())
+                .isEqualTo(MedicalRecordStatus.READY);
+        assertThat(medicalRecordRepository.findById(legacy).orElseThrow().getStatus())
+                .isEqualTo(MedicalRecordStatus.PENDING);
+    }
+
+    @Test
+    void holdsTheSlotAndStagedFileUntilOcrFinishesAfterAFailedUpload(@TempDir Path stagingDir) throws Exception {
+        RecordStorage storage = mock(RecordStorage.class);
+        when(storage.store(anyString(), any())).thenThrow(new IOException("storage is down"));
+        CountDownLatch ocrStarted = new CountDownLatch(1);
+        CountDownLatch finishOcr = new CountDownLatch(1);
+        OcrService ocr = mock(OcrService.class);
+        when(ocr.extractTextFromImage(any())).thenAnswer(invocation -> {
+            ocrStarted.countDown();
+            finishOcr.await();
+            // still readable: nothing has released the staged file yet
+            return Files.readString(invocation.getArgument(0));
+        });
+        UploadStagingArea stagingArea = new UploadStagingArea(stagingDir.toString());
+        MedicalRecordIngestionPipeline pipeline = pipeline(storage, ocr, stagingArea);
+        try {
+            User patient = userRepository.save(new User(null, "Patient", UUID.randomUUID() + "@test.local", "x",
+                    Role.PATIENT));
+            UploadStagingArea.StagedFile staged = stagingArea.stage(
+                    new ByteArrayInputStream("Haemoglobin 13.8 g/dL".getBytes(StandardCharsets.UTF_8)));
+            Long recordId = save(patient, MedicalRecordStatus.PENDING, staged.hash(), null);
+
+            pipeline.reserve();
+            CompletableFuture<Void> done = pipeline.submit(recordId, staged, staged.hash() + ".txt");
+
+            verify(storage, timeout(5000)).store(anyString(), any());
+            assertThat(ocrStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(200);
+            assertThat(done).isNotDone();
+            assertThat(pipeline.inFlightCount()).isEqualTo(1);
+            assertThat(staged.path()).exists();
+            assertThat(medicalRecordRepository.findById(recordId).orElseThrow().getStatus())
+                    .isEqualTo(MedicalRecordStatus.PENDING);
+
+            finishOcr.countDown();
+            done.get(5, TimeUnit.SECONDS);
+
+            assertThat(pipeline.inFlightCount()).isZero();
+            assertThat(staged.path()).doesNotExist();
+            MedicalRecord record = medicalRecordRepository.findById(recordId).orElseThrow();
+            assertThat(record.getStatus()).isEqualTo(MedicalRecordStatus.FAILED);
+            assertThat(record.getFailureReason()).contains("storage is down");
+        } finally {
+            finishOcr.countDown();
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void keepsASharedStagedFileForADuplicateUploadWhileTheFirstFails(@TempDir Path stagingDir) throws Exception {
+        RecordStorage storage = mock(RecordStorage.class);
+        when(storage.store(anyString(), any())).thenThrow(new IOException("storage is down"))
+                .thenReturn("memory://report.txt");
+        CountDownLatch firstOcrStarted = new CountDownLatch(1);
+        CountDownLatch finishFirstOcr = new CountDownLatch(1);
+        AtomicInteger ocrCalls = new AtomicInteger();
+        OcrService ocr = mock(OcrService.class);
+        when(ocr.extractTextFromImage(any())).thenAnswer(invocation -> {
+            if (ocrCalls.incrementAndGet() == 1) {
+                firstOcrStarted.countDown();
+                finishFirstOcr.await();
+            }
+            return Files.readString(invocation.getArgument(0));
+        });
+        UploadStagingArea stagingArea = new UploadStagingArea(stagingDir.toString());
+        MedicalRecordIngestionPipeline pipeline = pipeline(storage, ocr, stagingArea);
+        byte[] content = "Fasting glucose 92 mg/dL".getBytes(StandardCharsets.UTF_8);
+        try {
+            User patient = userRepository.save(new User(null, "Patient", UUID.randomUUID() + "@test.local", "x",
+                    Role.PATIENT));
+            UploadStagingArea.StagedFile first = stagingArea.stage(new ByteArrayInputStream(content));
+            Long firstId = save(patient, MedicalRecordStatus.PENDING, first.hash(), null);
+            pipeline.reserve();
+            CompletableFuture<Void> firstDone = pipeline.submit(firstId, first, first.hash() + ".txt");
+            verify(storage, timeout(5000)).store(anyString(), any());
+            assertThat(firstOcrStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // the same content arrives again while the first record's upload has failed but its OCR runs
+            UploadStagingArea.StagedFile second = stagingArea.stage(new ByteArrayInputStream(content));
+            assertThat(second.path()).isEqualTo(first.path());
+            finishFirstOcr.countDown();
+            firstDone.get(5, TimeUnit.SECONDS);
+            assertThat(second.path()).exists();
+
+            Long secondId = save(patient, MedicalRecordStatus.PENDING, second.hash(), null);
+            pipeline.reserve();
+            pipeline.submit(secondId, second, second.hash() + ".txt").get(5, TimeUnit.SECONDS);
+
+            assertThat(medicalRecordRepository.findById(firstId).orElseThrow().getStatus())
+                    .isEqualTo(MedicalRecordStatus.FAILED);
+            MedicalRecord record = medicalRecordRepository.findById(secondId).orElseThrow();
+            assertThat(record.getStatus()).isEqualTo(MedicalRecordStatus.READY);
+            assertThat(record.getExtractedText()).isEqualTo("Fasting glucose 92 mg/dL");
+            assertThat(second.path()).doesNotExist();
+        } finally {
+            finishFirstOcr.countDown();
+            pipeline.shutdown();
+        }
+    }
+
+    private MedicalRecordIngestionPipeline pipeline(RecordStorage storage, OcrService ocr,
+            UploadStagingArea stagingArea) {
+        MedicalRecordIngestionPipeline pipeline = new MedicalRecordIngestionPipeline(medicalRecordRepository,
+                storage, ocr, stagingArea, 4, 2, 2, false, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pipeline, "storageAttempts", 1);
+        return pipeline;
+    }
+
+    private Long save(User patient, MedicalRecordStatus status, String contentHash, String fileUrl) {
+        MedicalRecord record = new MedicalRecord();
+        record.setPatient(patient);
+        record.setUploadDate(LocalDate.now());
+        record.setStatus(status);
+        record.setContentHash(contentHash);
+        record.setFileUrl(fileUrl);
+        return medicalRecordRepository.save(record).getId();
+    }
+}
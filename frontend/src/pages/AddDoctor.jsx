@@ -1,6 +1,6 @@
 import { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
-import api from '../services/api';
+import api, { getAll } from '../services/api';
 import { Button } from '../components/ui/button';
 import { Input } from '../components/ui/input';
 import { Label } from '../components/ui/label';
@@ -21,8 +21,7 @@ const AddDoctor = () => {
     useEffect(() => {
         const fetchHospitals = async () => {
             try {
-                const response = await api.get('/hospitals');
-                setHospitals(response.data);
+                setHospitals(await getAll('/hospitals'));
             } catch (err) {
                 console.error(err);
                 toast.error('Failed to fetch hospitals');
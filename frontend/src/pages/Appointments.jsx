@@ -1,6 +1,6 @@
 import { useEffect, useState } from 'react';
 import { useAuth } from '../context/AuthContext';
-import api from '../services/api';
+import { getAll } from '../services/api';
 import { Card, CardContent, CardDescription, CardHeader, CardTitle } from '../components/ui/card';
 import { Badge } from '../components/ui/badge';
 import { Calendar, Clock, User } from 'lucide-react';
@@ -18,8 +18,7 @@ const Appointments = () => {
 
     const fetchAppointments = async () => {
         try {
-            const response = await api.get(`/appointments/patient/${user.id}`);
-            setAppointments(response.data);
+            setAppointments(await getAll(`/appointments/patient/${user.id}`));
         } catch (error) {
             console.error('Error fetching appointments', error);
         } finally {
@@ -1,7 +1,7 @@
 import { useEffect, useState } from 'react';
 import { useAuth } from '../context/AuthContext';
 import { Link } from 'react-router-dom';
-import api from '../services/api';
+import api, { getAll } from '../services/api';
 import { Button } from '../components/ui/button';
 import { Card, CardContent, CardDescription, CardHeader, CardTitle } from '../components/ui/card';
 import { Badge } from '../components/ui/badge';
@@ -22,11 +22,11 @@ const Dashboard = () => {
     const fetchData = async () => {
         try {
             const [appointmentsRes, doctorsRes] = await Promise.all([
-                api.get(`/appointments/patient/${user.id}`),
-                api.get('/doctors')
+                getAll(`/appointments/patient/${user.id}`),
+                api.get('/doctors', { params: { size: 3 } })
             ]);
-            setAppointments(appointmentsRes.data);
-            setDoctors(doctorsRes.data.slice(0, 3));
+            setAppointments(appointmentsRes);
+            setDoctors(doctorsRes.data);
         } catch (error) {
             console.error("Error fetching dashboard data", error);
         } finally {
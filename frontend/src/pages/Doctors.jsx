@@ -1,7 +1,7 @@
 import { useState, useEffect } from 'react';
 import { useAuth } from '../context/AuthContext';
 import { useNavigate } from 'react-router-dom';
-import api from '../services/api';
+import api, { getAll } from '../services/api';
 import { Button } from '../components/ui/button';
 import { Input } from '../components/ui/input';
 import { Label } from '../components/ui/label';
@@ -40,11 +40,11 @@ const Doctors = () => {
     const fetchData = async () => {
         try {
             const [doctorsRes, hospitalsRes] = await Promise.all([
-                api.get('/doctors'),
-                api.get('/hospitals')
+                getAll('/doctors'),
+                getAll('/hospitals')
             ]);
-            setDoctors(doctorsRes.data);
-            setHospitals(hospitalsRes.data);
+            setDoctors(doctorsRes);
+            setHospitals(hospitalsRes);
         } catch (error) {
             console.error("Failed to fetch data", error);
             toast.error("Failed to load doctors");
@@ -102,7 +102,7 @@ const Doctors = () => {
             toast.success('Appointment Booked Successfully!');
             handleCloseModal();
         } catch (error) {
-            toast.error('Booking Failed');
+            toast.error(error.response?.data?.message || 'Booking Failed');
             console.error(error);
         } finally {
             setBookingLoading(false);
@@ -266,6 +266,7 @@ const Doctors = () => {
                                     <Input
                                         id="time"
                                         type="time"
+                                        step={1800}
                                         className="pl-10"
                                         value={appointmentTime}
                                         onChange={(e) => setAppointmentTime(e.target.value)}
@@ -8,7 +8,7 @@ import { Select } from '../components/ui/select';
 import { Card, CardContent, CardDescription, CardHeader, CardTitle } from '../components/ui/card';
 import { Heart, Mail, Lock, User, Stethoscope, Building2 } from 'lucide-react';
 import { toast } from 'react-toastify';
-import api from '../services/api';
+import { getAll } from '../services/api';
 
 const Register = () => {
     const [name, setName] = useState('');
@@ -26,8 +26,7 @@ const Register = () => {
     useEffect(() => {
         const fetchHospitals = async () => {
             try {
-                const response = await api.get('/hospitals');
-                setHospitals(response.data);
+                setHospitals(await getAll('/hospitals'));
             } catch (err) {
                 console.error('Failed to fetch hospitals:', err);
             }
@@ -4,9 +4,43 @@ const api = axios.create({
     baseURL: '/api', // Vite proxy will handle the rest
 });
 
+// refresh a little before expiry so requests don't race the deadline
+const REFRESH_MARGIN_MS = 30 * 1000;
+
+let refreshing = null;
+
+// one refresh at a time; concurrent requests wait for the same new token
+const refreshTokens = () => {
+    if (!refreshing) {
+        const refreshToken = localStorage.getItem('refreshToken');
+        refreshing = axios.post('/api/auth/refresh', { refreshToken })
+            .then((response) => {
+                localStorage.setItem('token', response.data.accessToken);
+                localStorage.setItem('refreshToken', response.data.refreshToken);
+                localStorage.setItem('tokenExpiresAt', Date.now() + response.data.expiresIn * 1000);
+                return response.data.accessToken;
+            })
+            .catch((error) => {
+                ['token', 'refreshToken', 'tokenExpiresAt', 'role', 'id', 'name']
+                    .forEach((key) => localStorage.removeItem(key));
+                window.location.href = '/login';
+                return Promise.reject(error);
+            })
+            .finally(() => {
+                refreshing = null;
+            });
+    }
+    return refreshing;
+};
+
 api.interceptors.request.use(
-    (config) => {
-        const token = localStorage.getItem('token');
+    async (config) => {
+        let token = localStorage.getItem('token');
+        const expiresAt = Number(localStorage.getItem('tokenExpiresAt'));
+        if (token && localStorage.getItem('refreshToken') && expiresAt
+                && expiresAt - Date.now() < REFRESH_MARGIN_MS && !config.url.startsWith('/auth/')) {
+            token = await refreshTokens();
+        }
         if (token) {
             config.headers.Authorization = `Bearer ${token}`;
         }
@@ -17,4 +51,33 @@ api.interceptors.request.use(
     }
 );
 
+api.interceptors.response.use(
+    (response) => response,
+    async (error) => {
+        const config = error.config;
+        if (error.response?.status === 401 && config && !config._retried
+                && localStorage.getItem('refreshToken') && !config.url.startsWith('/auth/')) {
+            config._retried = true;
+            config.headers.Authorization = `Bearer ${await refreshTokens()}`;
+            return api(config);
+        }
+        return Promise.reject(error);
+    }
+);
+
+// the server's max page size; list endpoints return one page per request
+const LIST_PAGE_SIZE = 1000;
+
+// reads every page of a list endpoint, following X-Next-Cursor until the last page
+export const getAll = async (url, params = {}) => {
+    const items = [];
+    let after;
+    do {
+        const response = await api.get(url, { params: { ...params, size: LIST_PAGE_SIZE, after } });
+        items.push(...response.data);
+        after = response.headers['x-next-cursor'];
+    } while (after);
+    return items;
+};
+
 export default api;
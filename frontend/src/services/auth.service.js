@@ -5,6 +5,8 @@ const AuthService = {
         const response = await api.post('/auth/login', { email, password });
         if (response.data.accessToken) {
             localStorage.setItem('token', response.data.accessToken);
+            localStorage.setItem('refreshToken', response.data.refreshToken);
+            localStorage.setItem('tokenExpiresAt', Date.now() + response.data.expiresIn * 1000);
             localStorage.setItem('role', response.data.role);
             localStorage.setItem('id', response.data.id);
             localStorage.setItem('name', response.data.name);
@@ -22,7 +24,14 @@ const AuthService = {
     },
 
     logout: () => {
+        const refreshToken = localStorage.getItem('refreshToken');
+        if (refreshToken) {
+            // best effort: the local session ends either way
+            api.post('/auth/logout', { refreshToken }).catch(() => {});
+        }
         localStorage.removeItem('token');
+        localStorage.removeItem('refreshToken');
+        localStorage.removeItem('tokenExpiresAt');
         localStorage.removeItem('role');
         localStorage.removeItem('id');
         localStorage.removeItem('name');